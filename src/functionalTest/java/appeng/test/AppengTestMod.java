@@ -66,7 +66,11 @@ public class AppengTestMod {
             }
         }
         final LauncherDiscoveryRequest discovery = LauncherDiscoveryRequestBuilder.request()
-                .selectors(DiscoverySelectors.selectPackage("appeng.test")).build();
+                .selectors(
+                        DiscoverySelectors.selectPackage("appeng.test"),
+                        // tests of package-private internals
+                        DiscoverySelectors.selectPackage("appeng.util.item"))
+                .build();
         final SummaryGeneratingListener summaryGenerator = new SummaryGeneratingListener();
         final TestExecutionSummary summary;
         try (PrintWriter stderrWriter = new PrintWriter(new CloseShieldOutputStream(System.err), true)) {
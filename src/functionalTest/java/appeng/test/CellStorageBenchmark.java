@@ -0,0 +1,111 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompressedStreamTools;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.exceptions.AppEngException;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.core.AEConfig;
+import appeng.me.storage.CellInventory;
+import appeng.me.storage.ItemCellInventory;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+
+/**
+ * Compares the load time and save size of the legacy and compact storage cell layouts. Every cell holds
+ * {@link #TYPES_PER_CELL} random item types. Run with {@code -Dappeng.benchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "appeng.benchmarks", matches = "true")
+public class CellStorageBenchmark {
+
+    private static final int TYPES_PER_CELL = 32;
+
+    private final List<ItemStack> itemPool = new ArrayList<>();
+
+    public CellStorageBenchmark() {
+        for (final Object o : Item.itemRegistry) {
+            final Item item = (Item) o;
+            for (int meta = 0; meta < 16; meta++) {
+                this.itemPool.add(new ItemStack(item, 1, meta));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1_000, 10_000, 100_000 })
+    void compareCellLayouts(int cells) throws Exception {
+        final Result legacy = this.run(cells, false);
+        final Result compact = this.run(cells, true);
+
+        System.out.printf(
+                "%d cells: legacy %d bytes, load %d ms; compact %d bytes, load %d ms%n",
+                cells,
+                legacy.bytes,
+                legacy.loadNanos / 1_000_000,
+                compact.bytes,
+                compact.loadNanos / 1_000_000);
+
+        assertEquals(legacy.items, compact.items);
+        assertTrue(compact.bytes < legacy.bytes);
+    }
+
+    private Result run(int cells, boolean compactLayout) throws AppEngException, IOException {
+        final boolean oldLayout = AEConfig.instance.compactCellStorage;
+        AEConfig.instance.compactCellStorage = compactLayout;
+        try {
+            // the same seed for both layouts
+            final Random random = new Random(cells);
+            final Result result = new Result();
+
+            for (int c = 0; c < cells; c++) {
+                final ItemStack cell = AEApi.instance().definitions().items().cell64k().maybeStack(1).get();
+                final ItemCellInventory inventory = new ItemCellInventory(cell, null);
+                for (int t = 0; t < TYPES_PER_CELL; t++) {
+                    final ItemStack is = this.itemPool.get(random.nextInt(this.itemPool.size()));
+                    final IAEItemStack stack = AEItemStack.create(is).setStackSize(1 + random.nextInt(1000));
+                    inventory.injectItems(stack, Actionable.MODULATE, new BaseActionSource());
+                }
+                CellInventory.flushDirtyCells();
+
+                result.bytes += CompressedStreamTools.compress(cell.getTagCompound()).length;
+
+                // what a chunk load sees: a copy of the tag, decoded by the first access
+                final ItemStack loaded = cell.copy();
+
+                final long start = System.nanoTime();
+                final ItemList items = new ItemList();
+                new ItemCellInventory(loaded, null).getAvailableItems(items, 0);
+                result.loadNanos += System.nanoTime() - start;
+
+                for (final IAEItemStack stack : items) {
+                    result.items += stack.getStackSize();
+                }
+            }
+            return result;
+        } finally {
+            AEConfig.instance.compactCellStorage = oldLayout;
+        }
+    }
+
+    private static final class Result {
+
+        long bytes;
+        long loadNanos;
+        long items;
+    }
+}
@@ -0,0 +1,158 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.networking.events.MENetworkCraftingPatternChange;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IBaseMonitor;
+import appeng.test.mockme.MockAESystem;
+import appeng.test.mockme.MockCraftingProvider;
+import appeng.util.item.AEItemStack;
+
+/**
+ * Adding, changing or removing a crafting provider only updates the patterns of that provider. The result and the
+ * craftables posted to the storage listeners have to be the same as after a full rebuild.
+ */
+public class CraftingProviderUpdateTests {
+
+    private final MockAESystem aeSystem = new MockAESystem(DummyWorld.get());
+    private final Set<IAEStack<?>> posted = new HashSet<>();
+
+    public CraftingProviderUpdateTests() {
+        this.aeSystem.sgCache.getItemInventory().addListener(new IMEMonitorHandlerReceiver<IAEItemStack>() {
+
+            @Override
+            public boolean isValid(Object verificationToken) {
+                return true;
+            }
+
+            @Override
+            public void postChange(IBaseMonitor<IAEItemStack> monitor, Iterable<IAEItemStack> change,
+                    BaseActionSource actionSource) {
+                for (IAEItemStack stack : change) {
+                    posted.add(stack.copy());
+                }
+            }
+
+            @Override
+            public void onListUpdate() {}
+        }, this);
+    }
+
+    private ICraftingPatternDetails pattern(ItemStack input, ItemStack output) {
+        return this.aeSystem.newProcessingPattern().addInput(input).addOutput(output).build();
+    }
+
+    private static Set<IAEStack<?>> stacks(ItemStack... stacks) {
+        final Set<IAEStack<?>> out = new HashSet<>();
+        for (ItemStack stack : stacks) {
+            out.add(AEItemStack.create(stack));
+        }
+        return out;
+    }
+
+    private static Set<IAEStack<?>> changedCraftables(Map<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> before,
+            Map<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> after) {
+        final Set<IAEStack<?>> changed = new HashSet<>();
+        for (IAEStack<?> craftable : before.keySet()) {
+            if (!before.get(craftable).equals(after.get(craftable))) {
+                changed.add(craftable);
+            }
+        }
+        for (IAEStack<?> craftable : after.keySet()) {
+            if (!after.get(craftable).equals(before.get(craftable))) {
+                changed.add(craftable);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Runs an update of one provider and checks it against a full rebuild afterwards.
+     */
+    private void updateAndCheck(Runnable update, Set<IAEStack<?>> expectedChanges) {
+        final ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> before = this.aeSystem.cgCache
+                .getCraftingMultiPatterns();
+
+        this.posted.clear();
+        update.run();
+        final ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> updated = this.aeSystem.cgCache
+                .getCraftingMultiPatterns();
+        final ImmutableSet<IAEStack<?>> updatedEmitables = this.aeSystem.cgCache.getEmitableItems();
+        final Set<IAEStack<?>> updatedChanges = new HashSet<>(this.posted);
+
+        this.aeSystem.grid.postEvent(new MENetworkCraftingPatternChange(null, null));
+        final ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> rebuilt = this.aeSystem.cgCache
+                .getCraftingMultiPatterns();
+
+        assertEquals(rebuilt, updated);
+        assertEquals(this.aeSystem.cgCache.getEmitableItems(), updatedEmitables);
+        assertEquals(changedCraftables(before, rebuilt), updatedChanges);
+        assertEquals(expectedChanges, updatedChanges);
+    }
+
+    @Test
+    void providerUpdatesMatchFullRebuild() {
+        final ItemStack iron = new ItemStack(Items.iron_ingot);
+        final ItemStack gold = new ItemStack(Items.gold_ingot);
+        final ItemStack diamond = new ItemStack(Items.diamond);
+        final ItemStack emerald = new ItemStack(Items.emerald);
+        final ItemStack stick = new ItemStack(Items.stick);
+        final ItemStack bucket = new ItemStack(Items.bucket);
+
+        final MockCraftingProvider first = new MockCraftingProvider();
+        final ICraftingPatternDetails toIron = pattern(stick, iron);
+        final ICraftingPatternDetails toGold = pattern(stick, gold);
+        first.patterns.add(toIron);
+        first.patterns.add(toGold);
+        first.emitables.add(AEItemStack.create(bucket));
+
+        final MockCraftingProvider second = new MockCraftingProvider();
+        // patterns of the same priority are only listed once
+        second.patterns.add(this.aeSystem.newProcessingPattern().addInput(iron).addOutput(gold).setPriority(1).build());
+        second.patterns.add(pattern(gold, diamond));
+        second.emitables.add(AEItemStack.create(bucket));
+
+        updateAndCheck(() -> this.aeSystem.cgCache.addNode(this.aeSystem.grid.rootNode, first), stacks(iron, gold));
+        updateAndCheck(
+                () -> this.aeSystem.cgCache.addNode(this.aeSystem.grid.rootNode, second),
+                stacks(gold, diamond));
+
+        // replace one pattern of the first provider
+        first.patterns.remove(toGold);
+        first.patterns.add(pattern(stick, emerald));
+        updateAndCheck(
+                () -> this.aeSystem.grid
+                        .postEvent(new MENetworkCraftingPatternChange(first, this.aeSystem.grid.rootNode)),
+                stacks(gold, emerald));
+
+        // the bucket stays emitable through the second provider
+        updateAndCheck(
+                () -> this.aeSystem.cgCache.removeNode(this.aeSystem.grid.rootNode, first),
+                stacks(iron, emerald));
+        assertTrue(this.aeSystem.cgCache.getEmitableItems().contains(AEItemStack.create(bucket)));
+
+        updateAndCheck(
+                () -> this.aeSystem.cgCache.removeNode(this.aeSystem.grid.rootNode, second),
+                stacks(gold, diamond));
+        assertTrue(this.aeSystem.cgCache.getCraftingMultiPatterns().isEmpty());
+        assertTrue(this.aeSystem.cgCache.getEmitableItems().isEmpty());
+    }
+}
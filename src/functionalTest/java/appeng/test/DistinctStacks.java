@@ -0,0 +1,36 @@
+package appeng.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Different item types for tests and benchmarks that need many of them, every registered item with increasing damage
+ * values.
+ */
+public final class DistinctStacks {
+
+    private static List<Item> items = null;
+
+    private DistinctStacks() {}
+
+    /**
+     * @return The given number of different item stacks of size 1, the same ones on every call
+     */
+    public static synchronized List<ItemStack> get(final int count) {
+        if (items == null) {
+            items = new ArrayList<>();
+            for (final Object o : Item.itemRegistry) {
+                items.add((Item) o);
+            }
+        }
+
+        final List<ItemStack> stacks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            stacks.add(new ItemStack(items.get(i % items.size()), 1, i / items.size()));
+        }
+        return stacks;
+    }
+}
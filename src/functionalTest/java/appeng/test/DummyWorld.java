@@ -0,0 +1,47 @@
+package appeng.test;
+
+import java.io.File;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldProviderSurface;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.WorldSettings;
+import net.minecraft.world.WorldSettings.GameType;
+import net.minecraft.world.WorldType;
+import net.minecraftforge.common.DimensionManager;
+
+/**
+ * A world on its own dimension that is never saved, for tests and benchmarks that need a world but no blocks.
+ */
+public final class DummyWorld {
+
+    private static final int DIMENSION = 257;
+
+    private static World world = null;
+
+    private DummyWorld() {}
+
+    public static synchronized World get() {
+        if (!DimensionManager.isDimensionRegistered(DIMENSION)) {
+            DimensionManager.registerProviderType(DIMENSION, WorldProviderSurface.class, false);
+            DimensionManager.registerDimension(DIMENSION, DIMENSION);
+        }
+        if (world == null) {
+            world = new WorldServer(
+                    MinecraftServer.getServer(),
+                    new DummySaveHandler(),
+                    "DummyBenchmarkWorld",
+                    DIMENSION,
+                    new WorldSettings(DIMENSION, GameType.SURVIVAL, false, false, WorldType.DEFAULT),
+                    MinecraftServer.getServer().theProfiler) {
+
+                @Override
+                public File getChunkSaveLocation() {
+                    return new File("dummy-ignoreme");
+                }
+            };
+        }
+        return world;
+    }
+}
@@ -0,0 +1,78 @@
+package appeng.test;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.storage.CellInventory;
+import appeng.util.IterationCounter;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+
+/**
+ * The IO Port opens its cell without a save provider, moves items in or out and then copies the cell stack to its
+ * output slot. The copy has to hold the moved items.
+ */
+public class IOPortCellTests {
+
+    private final BaseActionSource source = new BaseActionSource();
+
+    @SuppressWarnings("unchecked")
+    private static IMEInventoryHandler<IAEItemStack> openCell(ItemStack cell) {
+        return AEApi.instance().registries().cell().getCellInventory(cell, null, ITEM_STACK_TYPE);
+    }
+
+    private static long storedDiamonds(ItemStack cell) {
+        final IAEItemStack stored = openCell(cell)
+                .getAvailableItems(new ItemList(), IterationCounter.fetchNewId())
+                .findPrecise(AEItemStack.create(new ItemStack(Items.diamond)));
+        return stored == null ? 0 : stored.getStackSize();
+    }
+
+    private static ItemStack newCell() {
+        return AEApi.instance().definitions().items().cell64k().maybeStack(1).get();
+    }
+
+    @Test
+    void fillModeKeepsInsertedItems() {
+        final ItemStack cell = newCell();
+
+        assertNull(
+                openCell(cell).injectItems(
+                        AEItemStack.create(new ItemStack(Items.diamond, 100)),
+                        Actionable.MODULATE,
+                        this.source));
+        final ItemStack moved = cell.copy();
+
+        assertEquals(100, storedDiamonds(moved));
+    }
+
+    @Test
+    void emptyModeKeepsNoExtractedItems() {
+        final ItemStack cell = newCell();
+        openCell(cell).injectItems(
+                AEItemStack.create(new ItemStack(Items.diamond, 100)),
+                Actionable.MODULATE,
+                this.source);
+        CellInventory.flushDirtyCells();
+
+        final IAEItemStack extracted = openCell(cell).extractItems(
+                AEItemStack.create(new ItemStack(Items.diamond, 100)),
+                Actionable.MODULATE,
+                this.source);
+        final ItemStack moved = cell.copy();
+
+        assertNotNull(extracted);
+        assertEquals(100, extracted.getStackSize());
+        assertEquals(0, storedDiamonds(moved));
+    }
+}
@@ -0,0 +1,78 @@
+package appeng.test;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.IMEMonitorHandlerReceiver;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IBaseMonitor;
+import appeng.test.mockme.MockAESystem;
+import appeng.util.item.AEItemStack;
+
+/**
+ * The running storage totals of the network monitor have to agree with its storage list, also when a change is made
+ * while another one is being posted.
+ */
+public class NetworkMonitorTotalsTests {
+
+    private final MockAESystem aeSystem = new MockAESystem(DummyWorld.get());
+    private final IMEMonitor<IAEItemStack> monitor = this.aeSystem.sgCache.getItemInventory();
+
+    private long countStorageList() {
+        long count = 0;
+        for (IAEItemStack stack : this.monitor.getStorageList()) {
+            count += stack.getStackSize();
+        }
+        return count;
+    }
+
+    @Test
+    void nestedChangeOfAnotherStackIsCounted() {
+        this.aeSystem.addStoredItem(new ItemStack(Items.iron_ingot, 3));
+        // the totals are counted on the first read and only updated afterwards
+        assertEquals(3, this.aeSystem.sgCache.getStoredCount(ITEM_STACK_TYPE));
+
+        final IAEItemStack apples = AEItemStack.create(new ItemStack(Items.apple, 5));
+        this.monitor.addListener(new IMEMonitorHandlerReceiver<IAEItemStack>() {
+
+            private boolean injected = false;
+
+            @Override
+            public boolean isValid(Object verificationToken) {
+                return true;
+            }
+
+            @Override
+            public void postChange(IBaseMonitor<IAEItemStack> monitor, Iterable<IAEItemStack> change,
+                    BaseActionSource actionSource) {
+                if (!this.injected) {
+                    this.injected = true;
+                    assertNull(
+                            NetworkMonitorTotalsTests.this.monitor
+                                    .injectItems(apples.copy(), Actionable.MODULATE, actionSource));
+                }
+            }
+
+            @Override
+            public void onListUpdate() {}
+        }, this);
+
+        assertNull(
+                this.monitor.injectItems(
+                        AEItemStack.create(new ItemStack(Items.diamond, 10)),
+                        Actionable.MODULATE,
+                        this.aeSystem.dummyActionSource));
+
+        assertEquals(18, countStorageList());
+        assertEquals(countStorageList(), this.aeSystem.sgCache.getStoredCount(ITEM_STACK_TYPE));
+        assertEquals(3, this.aeSystem.sgCache.getStoredTypes(ITEM_STACK_TYPE));
+    }
+}
@@ -0,0 +1,86 @@
+package appeng.test;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+import static org.junit.jupiter.api.Assertions.*;
+
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.cache.helpers.NetworkStorageSnapshot;
+import appeng.test.mockme.MockAESystem;
+import appeng.util.item.AEItemStack;
+
+/**
+ * Storage snapshots are published on the storage grid tick while they are asked for, and their versions only ever
+ * increase.
+ */
+public class StorageSnapshotTests {
+
+    private final MockAESystem aeSystem = new MockAESystem(DummyWorld.get());
+    private final IAEItemStack diamond = AEItemStack.create(new ItemStack(Items.diamond));
+
+    private NetworkStorageSnapshot<IAEItemStack> snapshot() {
+        return this.aeSystem.sgCache.getStorageSnapshot(ITEM_STACK_TYPE);
+    }
+
+    private void tick() {
+        this.aeSystem.sgCache.onUpdateTick();
+    }
+
+    @Test
+    void firstCallReturnsNull() {
+        this.aeSystem.addStoredItem(new ItemStack(Items.diamond, 4));
+        assertNull(snapshot());
+
+        tick();
+        final NetworkStorageSnapshot<IAEItemStack> first = snapshot();
+        assertNotNull(first);
+        assertEquals(4, first.getStackSize(this.diamond));
+    }
+
+    @Test
+    void changesArePublishedOnTheNextTick() {
+        this.aeSystem.addStoredItem(new ItemStack(Items.diamond, 4));
+        snapshot();
+        tick();
+        final NetworkStorageSnapshot<IAEItemStack> first = snapshot();
+
+        // nothing changed, the snapshot is kept
+        tick();
+        assertSame(first, snapshot());
+
+        this.aeSystem.addStoredItem(new ItemStack(Items.diamond, 3));
+        assertSame(first, snapshot());
+        assertEquals(4, first.getStackSize(this.diamond));
+
+        tick();
+        final NetworkStorageSnapshot<IAEItemStack> second = snapshot();
+        assertNotSame(first, second);
+        assertEquals(7, second.getStackSize(this.diamond));
+        assertTrue(second.getVersion() > first.getVersion());
+    }
+
+    @Test
+    void versionsIncreaseAfterAnIdlePause() {
+        this.aeSystem.addStoredItem(new ItemStack(Items.diamond, 4));
+        snapshot();
+        tick();
+        final NetworkStorageSnapshot<IAEItemStack> first = snapshot();
+        assertNotNull(first);
+
+        // nobody asks, so publishing stops and the snapshot is dropped
+        for (int i = 0; i < 200; i++) {
+            tick();
+        }
+        assertNull(snapshot());
+
+        tick();
+        final NetworkStorageSnapshot<IAEItemStack> second = snapshot();
+        assertNotNull(second);
+        assertEquals(4, second.getStackSize(this.diamond));
+        assertTrue(second.getVersion() > first.getVersion());
+    }
+}
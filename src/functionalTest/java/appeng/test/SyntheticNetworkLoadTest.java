@@ -0,0 +1,39 @@
+package appeng.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import appeng.test.load.NetworkLoadReport;
+import appeng.test.load.NetworkLoadRunner;
+import appeng.test.load.SyntheticNetwork;
+import appeng.test.load.SyntheticNetworkConfig;
+
+/**
+ * Builds a synthetic network and drives its workload, see {@link SyntheticNetworkConfig} for the options. Run with
+ * {@code -Dappeng.loadtest=true}, the report is printed and written to {@code load-out/report-<seed>.json}.
+ */
+@EnabledIfSystemProperty(named = "appeng.loadtest", matches = "true")
+public class SyntheticNetworkLoadTest {
+
+    @Test
+    void runWorkload() throws IOException {
+        final SyntheticNetworkConfig config = SyntheticNetworkConfig.fromSystemProperties();
+
+        final long buildStart = System.nanoTime();
+        final SyntheticNetwork network = new SyntheticNetwork(DummyWorld.get(), config);
+        System.out.printf("Built the network in %d ms%n", (System.nanoTime() - buildStart) / 1_000_000);
+
+        final long storedBefore = network.getStoredItemCount();
+        final NetworkLoadReport report = new NetworkLoadRunner(network).run();
+        System.out.print(report);
+        report.writeJson(new File("./load-out/report-" + config.seed + ".json"));
+
+        assertEquals(config.ticks, report.ticks);
+        assertEquals(storedBefore + report.itemsImported - report.itemsExported, network.getStoredItemCount());
+    }
+}
@@ -0,0 +1,112 @@
+package appeng.test.load;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Results of a {@link NetworkLoadRunner} run. Times are in nanoseconds, allocations in bytes and -1 if the JVM cannot
+ * measure them.
+ */
+public class NetworkLoadReport {
+
+    public final SyntheticNetworkConfig config;
+    public int nodes;
+    public int cells;
+    public int patterns;
+    public int ticks;
+    public long wallNanos;
+
+    public long itemsImported;
+    public long itemsExported;
+    public int craftsPlanned;
+    public int craftsUnfinished;
+    public int terminalOpens;
+    public int terminalPackets;
+
+    /**
+     * Time spent in {@code onUpdateTick} of every grid cache.
+     */
+    public final Map<String, Meter> caches = new LinkedHashMap<>();
+    /**
+     * Time spent in every kind of workload operation.
+     */
+    public final Map<String, Meter> operations = new LinkedHashMap<>();
+
+    NetworkLoadReport(SyntheticNetworkConfig config) {
+        this.config = config;
+    }
+
+    Meter cache(String name) {
+        return this.caches.computeIfAbsent(name, k -> new Meter());
+    }
+
+    Meter operation(String name) {
+        return this.operations.computeIfAbsent(name, k -> new Meter());
+    }
+
+    public double getItemsPerTick() {
+        return this.ticks == 0 ? 0 : (double) (this.itemsImported + this.itemsExported) / this.ticks;
+    }
+
+    public void writeJson(File file) throws IOException {
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        try (Writer writer = new FileWriter(file)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(this, writer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(
+                String.format(
+                        "Seed %d: %d nodes, %d cells, %d patterns, %d ticks in %d ms%n",
+                        this.config.seed,
+                        this.nodes,
+                        this.cells,
+                        this.patterns,
+                        this.ticks,
+                        this.wallNanos / 1_000_000));
+        sb.append(
+                String.format(
+                        "Items: %d imported, %d exported, %.1f per tick; %d crafts planned, %d unfinished; "
+                                + "%d terminal opens in %d packets%n",
+                        this.itemsImported,
+                        this.itemsExported,
+                        this.getItemsPerTick(),
+                        this.craftsPlanned,
+                        this.craftsUnfinished,
+                        this.terminalOpens,
+                        this.terminalPackets));
+        append(sb, "Cache", this.caches);
+        append(sb, "Operation", this.operations);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String title, Map<String, Meter> meters) {
+        sb.append(String.format("%-24s %10s %14s %16s%n", title, "calls", "avg us", "avg bytes"));
+        for (final Map.Entry<String, Meter> entry : meters.entrySet()) {
+            final Meter meter = entry.getValue();
+            sb.append(
+                    String.format(
+                            "%-24s %10d %14.2f %16d%n",
+                            entry.getKey(),
+                            meter.calls,
+                            meter.calls == 0 ? 0 : meter.nanos / 1000.0 / meter.calls,
+                            meter.calls == 0 || meter.allocatedBytes < 0 ? -1 : meter.allocatedBytes / meter.calls));
+        }
+    }
+
+    public static class Meter {
+
+        public long calls;
+        public long nanos;
+        public long allocatedBytes;
+    }
+}
@@ -0,0 +1,166 @@
+package appeng.test.load;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.util.Map.Entry;
+import java.util.Random;
+
+import appeng.api.config.Actionable;
+import appeng.api.networking.IGridCache;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.core.sync.packets.PacketMEInventorySync;
+import appeng.crafting.v2.CraftingJobV2;
+import appeng.me.Grid;
+
+/**
+ * Drives the workload of a {@link SyntheticNetworkConfig} through a {@link SyntheticNetwork} for a number of
+ * simulated ticks, and measures every operation and every grid cache tick.
+ * <p>
+ * Every tick first runs the imports, exports, craft requests and terminal opens of that tick, then calls
+ * {@link IGridCache#onUpdateTick()} of every cache the way {@link Grid#update()} does. Craft requests only plan the
+ * job, the grid has no crafting CPUs to submit it to. Opening a terminal reads the storage list of the network and
+ * writes it to the packets a terminal would be sent.
+ */
+public class NetworkLoadRunner {
+
+    private static final int MAX_TRANSFER = 256;
+    private static final int MAX_CRAFT = 64;
+
+    private final SyntheticNetwork network;
+    private final SyntheticNetworkConfig config;
+    private final BaseActionSource source = new BaseActionSource();
+    private final IMEMonitor<IAEItemStack> monitor;
+    private final com.sun.management.ThreadMXBean threads;
+
+    public NetworkLoadRunner(SyntheticNetwork network) {
+        this.network = network;
+        this.config = network.config;
+        this.monitor = network.aeSystem.sgCache.getItemInventory();
+        this.threads = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() ? bean : null;
+    }
+
+    public NetworkLoadReport run() throws IOException {
+        final NetworkLoadReport report = new NetworkLoadReport(this.config);
+        report.nodes = this.network.getNodeCount();
+        report.cells = this.network.getCellCount();
+        report.patterns = this.network.getPatternCount();
+
+        // a different stream than the one that built the network, so that changing the workload keeps the network
+        final Random random = new Random(~this.config.seed);
+        final long start = System.nanoTime();
+        for (int tick = 0; tick < this.config.ticks; tick++) {
+            for (int i = 0; i < this.config.importsPerTick; i++) {
+                report.itemsImported += this.importItems(random, report.operation("import"));
+            }
+            for (int i = 0; i < this.config.exportsPerTick; i++) {
+                report.itemsExported += this.exportItems(random, report.operation("export"));
+            }
+            for (int i = 0; i < this.config.craftsPerTick; i++) {
+                if (this.planCraft(random, report.operation("craft request"))) {
+                    report.craftsPlanned++;
+                } else {
+                    report.craftsUnfinished++;
+                }
+            }
+            if (this.config.terminalOpenInterval > 0 && tick % this.config.terminalOpenInterval == 0) {
+                report.terminalPackets += this.openTerminal(report.operation("terminal open"));
+                report.terminalOpens++;
+            }
+
+            for (final Entry<Class<? extends IGridCache>, IGridCache> cache : this.network.aeSystem.grid.getCaches()
+                    .entrySet()) {
+                final long[] mark = this.begin();
+                cache.getValue().onUpdateTick();
+                this.end(mark, report.cache(cache.getKey().getSimpleName()));
+            }
+            report.ticks++;
+        }
+        report.wallNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * @return The number of items the network accepted
+     */
+    private long importItems(Random random, NetworkLoadReport.Meter meter) {
+        final IAEItemStack stack = this.network.randomStoredType(random).copy()
+                .setStackSize(1 + random.nextInt(MAX_TRANSFER));
+        final long[] mark = this.begin();
+        final IAEItemStack leftover = this.monitor.injectItems(stack, Actionable.MODULATE, this.source);
+        this.end(mark, meter);
+        return stack.getStackSize() - (leftover == null ? 0 : leftover.getStackSize());
+    }
+
+    /**
+     * @return The number of items the network gave
+     */
+    private long exportItems(Random random, NetworkLoadReport.Meter meter) {
+        final IAEItemStack request = this.network.randomStoredType(random).copy()
+                .setStackSize(1 + random.nextInt(MAX_TRANSFER));
+        final long[] mark = this.begin();
+        final IAEItemStack extracted = this.monitor.extractItems(request, Actionable.MODULATE, this.source);
+        this.end(mark, meter);
+        return extracted == null ? 0 : extracted.getStackSize();
+    }
+
+    /**
+     * @return Whether planning finished within the time limit
+     */
+    private boolean planCraft(Random random, NetworkLoadReport.Meter meter) {
+        final IAEItemStack request = this.network.randomCraftableType(random).copy()
+                .setStackSize(1 + random.nextInt(MAX_CRAFT));
+        final long[] mark = this.begin();
+        final CraftingJobV2 job = this.network.aeSystem.makeCraftingJob(request.getItemStack());
+        job.simulateFor(this.config.craftTimeLimitMs);
+        this.end(mark, meter);
+        return job.isDone();
+    }
+
+    /**
+     * @return The number of packets the terminal would be sent
+     */
+    private int openTerminal(NetworkLoadReport.Meter meter) throws IOException {
+        final long[] mark = this.begin();
+        int packets = 1;
+        int id = 0;
+        PacketMEInventorySync piu = new PacketMEInventorySync();
+        for (final IAEItemStack stack : this.monitor.getStorageList()) {
+            try {
+                piu.appendStack(id, stack);
+            } catch (final BufferOverflowException boe) {
+                piu.getProxy();
+                packets++;
+
+                piu = new PacketMEInventorySync();
+                piu.appendStack(id, stack);
+            }
+            id++;
+        }
+        piu.getProxy();
+        this.end(mark, meter);
+        return packets;
+    }
+
+    private long[] begin() {
+        return new long[] { System.nanoTime(), this.allocatedBytes() };
+    }
+
+    private void end(long[] mark, NetworkLoadReport.Meter meter) {
+        meter.nanos += System.nanoTime() - mark[0];
+        final long allocated = this.allocatedBytes();
+        if (allocated < 0 || mark[1] < 0 || meter.allocatedBytes < 0) {
+            meter.allocatedBytes = -1;
+        } else {
+            meter.allocatedBytes += allocated - mark[1];
+        }
+        meter.calls++;
+    }
+
+    private long allocatedBytes() {
+        return this.threads == null ? -1 : this.threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
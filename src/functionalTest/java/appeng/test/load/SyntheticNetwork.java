@@ -0,0 +1,151 @@
+package appeng.test.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.world.World;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.exceptions.FailedConnection;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.test.DistinctStacks;
+import appeng.test.mockme.MockAESystem;
+import appeng.test.mockme.MockCraftingMedium;
+import appeng.test.mockme.MockDrive;
+import appeng.test.mockme.MockGridNode;
+import appeng.util.item.AEItemStack;
+
+/**
+ * A large grid built without a world from a {@link SyntheticNetworkConfig}. The same seed always builds the same
+ * network.
+ * <ul>
+ * <li>Nodes form a random tree below the root node of the grid, every connection goes through the pathing cache.</li>
+ * <li>Drives are cell providers holding 64k cells, every cell is filled with random stored item types.</li>
+ * <li>Interfaces are crafting mediums with processing patterns. Pattern {@code n} crafts its own item from stored
+ * items and the items of patterns before it, so that requests plan through trees of sub crafts.</li>
+ * </ul>
+ * Drives and interfaces are not grid nodes themselves, only the storage and crafting caches see them.
+ */
+public class SyntheticNetwork {
+
+    private static final int MAX_PATTERN_INPUTS = 4;
+    private static final int MAX_STORED_AMOUNT = 10_000;
+
+    public final SyntheticNetworkConfig config;
+    public final MockAESystem aeSystem;
+    /**
+     * The item types stored in the drives.
+     */
+    public final List<IAEItemStack> storedTypes;
+    /**
+     * The item types crafted by the patterns, one per pattern.
+     */
+    public final List<IAEItemStack> craftableTypes;
+    private final List<MockGridNode> nodes = new ArrayList<>();
+    private int cells = 0;
+
+    public SyntheticNetwork(World world, SyntheticNetworkConfig config) {
+        this.config = config;
+        this.aeSystem = new MockAESystem(world);
+        final Random random = new Random(config.seed);
+
+        final List<IAEItemStack> types = new ArrayList<>();
+        final int typeCount = config.itemTypes + config.interfaces * config.patternsPerInterface;
+        for (final ItemStack stack : DistinctStacks.get(typeCount)) {
+            types.add(AEItemStack.create(stack));
+        }
+        this.storedTypes = Collections.unmodifiableList(types.subList(0, config.itemTypes));
+        this.craftableTypes = Collections.unmodifiableList(types.subList(config.itemTypes, types.size()));
+
+        this.buildNodes(random);
+        this.buildDrives(random);
+        this.buildInterfaces(random);
+    }
+
+    private void buildNodes(Random random) {
+        this.nodes.add(this.aeSystem.grid.rootNode);
+        for (int i = 1; i < this.config.nodes; i++) {
+            final MockGridNode parent = this.nodes.get(random.nextInt(this.nodes.size()));
+            final MockGridNode node = new MockGridNode();
+            try {
+                AEApi.instance().createGridConnection(parent, node);
+            } catch (final FailedConnection e) {
+                throw new IllegalStateException("Could not connect node " + i, e);
+            }
+            this.nodes.add(node);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void buildDrives(Random random) {
+        for (int d = 0; d < this.config.drives; d++) {
+            final MockDrive drive = new MockDrive(random.nextInt(4));
+            for (int c = 0; c < this.config.cellsPerDrive; c++) {
+                final ItemStack cell = AEApi.instance().definitions().items().cell64k().maybeStack(1).get();
+                final IMEInventoryHandler<IAEItemStack> handler = drive.addCell(cell);
+                for (int t = 0; t < this.config.typesPerCell; t++) {
+                    final IAEItemStack stack = this.randomStoredType(random).copy()
+                            .setStackSize(1 + random.nextInt(MAX_STORED_AMOUNT));
+                    handler.injectItems(stack, Actionable.MODULATE, this.aeSystem.dummyActionSource);
+                }
+                this.cells++;
+            }
+            this.aeSystem.sgCache.registerCellProvider(drive);
+        }
+    }
+
+    private void buildInterfaces(Random random) {
+        int pattern = 0;
+        for (int i = 0; i < this.config.interfaces; i++) {
+            final MockCraftingMedium medium = new MockCraftingMedium();
+            for (int p = 0; p < this.config.patternsPerInterface; p++, pattern++) {
+                final MockAESystem.PatternBuilder builder = this.aeSystem.newProcessingPattern();
+                final int inputs = 1 + random.nextInt(MAX_PATTERN_INPUTS);
+                for (int in = 0; in < inputs; in++) {
+                    // about half of the inputs are crafted themselves
+                    final IAEItemStack input = pattern > 0 && random.nextBoolean()
+                            ? this.craftableTypes.get(random.nextInt(pattern))
+                            : this.randomStoredType(random);
+                    builder.addInput(input.getItemStack());
+                }
+                builder.addOutput(this.craftableTypes.get(pattern).getItemStack()).buildAndAdd(medium);
+            }
+        }
+    }
+
+    public IAEItemStack randomStoredType(Random random) {
+        return this.storedTypes.get(random.nextInt(this.storedTypes.size()));
+    }
+
+    public IAEItemStack randomCraftableType(Random random) {
+        return this.craftableTypes.get(random.nextInt(this.craftableTypes.size()));
+    }
+
+    public int getNodeCount() {
+        return this.nodes.size();
+    }
+
+    public int getCellCount() {
+        return this.cells;
+    }
+
+    public int getPatternCount() {
+        return this.craftableTypes.size();
+    }
+
+    /**
+     * @return The sum of the sizes of every stack in the network storage
+     */
+    public long getStoredItemCount() {
+        long total = 0;
+        for (final IAEItemStack stack : this.aeSystem.sgCache.getItemInventory().getStorageList()) {
+            total += stack.getStackSize();
+        }
+        return total;
+    }
+}
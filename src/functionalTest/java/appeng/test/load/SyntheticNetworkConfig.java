@@ -0,0 +1,51 @@
+package appeng.test.load;
+
+/**
+ * Size of a {@link SyntheticNetwork} and the workload {@link NetworkLoadRunner} drives through it. Every value can be
+ * overridden with a system property named {@code appeng.loadtest.<field>}, e.g. {@code -Dappeng.loadtest.nodes=50000}.
+ */
+public class SyntheticNetworkConfig {
+
+    public long seed = 1;
+
+    // network
+    public int nodes = 20_000;
+    public int drives = 500;
+    public int cellsPerDrive = 10;
+    public int typesPerCell = 16;
+    public int itemTypes = 5_000;
+    public int interfaces = 1_000;
+    public int patternsPerInterface = 9;
+
+    // workload
+    public int ticks = 200;
+    public int importsPerTick = 100;
+    public int exportsPerTick = 100;
+    public int craftsPerTick = 1;
+    public int craftTimeLimitMs = 1_000;
+    /**
+     * Ticks between two terminal opens, 0 to never open one.
+     */
+    public int terminalOpenInterval = 20;
+
+    public static SyntheticNetworkConfig fromSystemProperties() {
+        final SyntheticNetworkConfig config = new SyntheticNetworkConfig();
+        config.seed = Long.getLong("appeng.loadtest.seed", config.seed);
+        config.nodes = Integer.getInteger("appeng.loadtest.nodes", config.nodes);
+        config.drives = Integer.getInteger("appeng.loadtest.drives", config.drives);
+        config.cellsPerDrive = Integer.getInteger("appeng.loadtest.cellsPerDrive", config.cellsPerDrive);
+        config.typesPerCell = Integer.getInteger("appeng.loadtest.typesPerCell", config.typesPerCell);
+        config.itemTypes = Integer.getInteger("appeng.loadtest.itemTypes", config.itemTypes);
+        config.interfaces = Integer.getInteger("appeng.loadtest.interfaces", config.interfaces);
+        config.patternsPerInterface = Integer
+                .getInteger("appeng.loadtest.patternsPerInterface", config.patternsPerInterface);
+        config.ticks = Integer.getInteger("appeng.loadtest.ticks", config.ticks);
+        config.importsPerTick = Integer.getInteger("appeng.loadtest.importsPerTick", config.importsPerTick);
+        config.exportsPerTick = Integer.getInteger("appeng.loadtest.exportsPerTick", config.exportsPerTick);
+        config.craftsPerTick = Integer.getInteger("appeng.loadtest.craftsPerTick", config.craftsPerTick);
+        config.craftTimeLimitMs = Integer.getInteger("appeng.loadtest.craftTimeLimitMs", config.craftTimeLimitMs);
+        config.terminalOpenInterval = Integer
+                .getInteger("appeng.loadtest.terminalOpenInterval", config.terminalOpenInterval);
+        return config;
+    }
+}
@@ -14,6 +14,8 @@ import net.minecraft.world.World;
 import appeng.api.AEApi;
 import appeng.api.config.Actionable;
 import appeng.api.networking.crafting.ICraftingGrid;
+import appeng.api.networking.crafting.ICraftingMedium;
+import appeng.api.networking.crafting.ICraftingPatternDetails;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.networking.storage.IStorageGrid;
 import appeng.api.storage.ICellProvider;
@@ -124,6 +126,14 @@ public class MockAESystem implements ICellProvider {
         }
 
         public void buildAndAdd() {
+            this.buildAndAdd(new MockCraftingMedium());
+        }
+
+        public void buildAndAdd(ICraftingMedium medium) {
+            cgCache.addCraftingOption(medium, build());
+        }
+
+        public ICraftingPatternDetails build() {
             final ItemStack encodedPattern = AEApi.instance().definitions().items().encodedPattern().maybeStack(1)
                     .get();
             final NBTTagCompound patternTags = new NBTTagCompound();
@@ -152,7 +162,7 @@ public class MockAESystem implements ICellProvider {
             encodedPattern.setTagCompound(patternTags);
             PatternHelper helper = new PatternHelper(encodedPattern, world);
             helper.setPriority(priority);
-            cgCache.addCraftingOption(new MockCraftingMedium(), helper);
+            return helper;
         }
     }
 
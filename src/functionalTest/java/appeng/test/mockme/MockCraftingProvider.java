@@ -0,0 +1,37 @@
+package appeng.test.mockme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.inventory.InventoryCrafting;
+
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.networking.crafting.ICraftingProvider;
+import appeng.api.networking.crafting.ICraftingProviderHelper;
+import appeng.api.storage.data.IAEStack;
+
+public class MockCraftingProvider extends MockGridMachine implements ICraftingProvider {
+
+    public final List<ICraftingPatternDetails> patterns = new ArrayList<>();
+    public final List<IAEStack<?>> emitables = new ArrayList<>();
+
+    @Override
+    public void provideCrafting(ICraftingProviderHelper craftingTracker) {
+        for (ICraftingPatternDetails pattern : patterns) {
+            craftingTracker.addCraftingOption(this, pattern);
+        }
+        for (IAEStack<?> emitable : emitables) {
+            craftingTracker.setEmitable(emitable);
+        }
+    }
+
+    @Override
+    public boolean pushPattern(ICraftingPatternDetails patternDetails, InventoryCrafting table) {
+        return true;
+    }
+
+    @Override
+    public boolean isBusy() {
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package appeng.test.mockme;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import net.minecraft.item.ItemStack;
+
+import appeng.api.storage.ICellProvider;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEStackType;
+import appeng.me.storage.CellInventory;
+
+/**
+ * A drive without a world, holding item storage cells that are never saved.
+ */
+public class MockDrive implements ICellProvider {
+
+    private final List<IMEInventoryHandler> cells = new ArrayList<>();
+    private final int priority;
+
+    public MockDrive(int priority) {
+        this.priority = priority;
+    }
+
+    public IMEInventoryHandler addCell(ItemStack cell) {
+        final IMEInventoryHandler<?> handler = CellInventory.getCell(cell, null, ITEM_STACK_TYPE);
+        if (handler == null) {
+            throw new IllegalArgumentException("Not an item storage cell: " + cell);
+        }
+        this.cells.add(handler);
+        return handler;
+    }
+
+    @Nonnull
+    @Override
+    public List<IMEInventoryHandler> getCellArray(IAEStackType<?> type) {
+        return type == ITEM_STACK_TYPE ? this.cells : Collections.emptyList();
+    }
+
+    @Override
+    public int getPriority() {
+        return this.priority;
+    }
+}
@@ -0,0 +1,206 @@
+package appeng.util.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+
+/**
+ * Runs the same operations on a {@link CompactItemList} and an {@link ItemList}, which must end up with the same
+ * contents.
+ */
+public class CompactItemListTests {
+
+    private final ItemList expected = new ItemList();
+    private final CompactItemList actual = new CompactItemList();
+
+    private static IAEItemStack stack(final Item item, final int damage, final long size) {
+        return AEItemStack.create(new ItemStack(item, 1, damage)).setStackSize(size);
+    }
+
+    private static IAEItemStack stack(final Item item, final long size) {
+        return stack(item, 0, size);
+    }
+
+    private static IAEItemStack craftable(final Item item) {
+        final IAEItemStack stack = stack(item, 0);
+        stack.setCraftable(true);
+        return stack;
+    }
+
+    private static IAEItemStack requestable(final Item item, final long count) {
+        final IAEItemStack stack = stack(item, 0);
+        stack.setCountRequestable(count);
+        stack.setCountRequestableCrafts(count / 2);
+        return stack;
+    }
+
+    private static List<AEItemStack> sorted(final Iterable<IAEItemStack> stacks) {
+        final List<AEItemStack> out = new ArrayList<>();
+        for (final IAEItemStack stack : stacks) {
+            out.add((AEItemStack) stack);
+        }
+        out.sort(null);
+        return out;
+    }
+
+    private static void assertSameStacks(final Iterable<IAEItemStack> expected, final Iterable<IAEItemStack> actual) {
+        final List<AEItemStack> e = sorted(expected);
+        final List<AEItemStack> a = sorted(actual);
+        assertEquals(e, a);
+        for (int i = 0; i < e.size(); i++) {
+            final String message = e.get(i).toString();
+            assertEquals(e.get(i).getStackSize(), a.get(i).getStackSize(), message);
+            assertEquals(e.get(i).isCraftable(), a.get(i).isCraftable(), message);
+            assertEquals(e.get(i).getCountRequestable(), a.get(i).getCountRequestable(), message);
+            assertEquals(e.get(i).getCountRequestableCrafts(), a.get(i).getCountRequestableCrafts(), message);
+        }
+    }
+
+    private void assertSameContents() {
+        assertSameStacks(this.expected, this.actual);
+        assertEquals(this.expected.size(), this.actual.size());
+        assertEquals(this.expected.isEmpty(), this.actual.isEmpty());
+        for (final IAEItemStack stack : this.expected) {
+            final IAEItemStack found = this.actual.findPrecise(stack);
+            assertNotNull(found, stack.toString());
+            assertEquals(stack.getStackSize(), found.getStackSize(), stack.toString());
+        }
+    }
+
+    private void assertSameFuzzyMatches() {
+        final IAEItemStack[] filters = { stack(Items.diamond_sword, 0, 1), stack(Items.diamond_sword, 800, 1),
+                stack(Items.diamond_sword, 1561, 1), AEItemStack.create(new ItemStack(Blocks.planks, 1, 2)),
+                stack(Items.diamond, 1), stack(Items.apple, 1) };
+        for (final IAEItemStack filter : filters) {
+            for (final FuzzyMode fuzzy : FuzzyMode.values()) {
+                assertSameStacks(this.expected.findFuzzy(filter, fuzzy), this.actual.findFuzzy(filter, fuzzy));
+            }
+        }
+    }
+
+    private void forBoth(final Consumer<IItemList<IAEItemStack>> operation) {
+        operation.accept(this.expected);
+        operation.accept(this.actual);
+    }
+
+    private void fill() {
+        forBoth(list -> {
+            for (final int damage : new int[] { 0, 100, 780, 1500, 1561 }) {
+                list.add(stack(Items.diamond_sword, damage, 1));
+            }
+            for (int meta = 0; meta < 6; meta++) {
+                list.add(AEItemStack.create(new ItemStack(Blocks.planks, 16, meta)));
+            }
+            list.add(stack(Items.diamond, 10));
+            list.add(stack(Items.apple, 5));
+        });
+    }
+
+    @Test
+    void addMergesStacks() {
+        fill();
+        forBoth(list -> {
+            list.add(stack(Items.diamond, 7));
+            list.add(stack(Items.apple, -5));
+            list.add(craftable(Items.diamond));
+            list.add(requestable(Items.stick, 12));
+        });
+        assertSameContents();
+    }
+
+    @Test
+    void addStorageOnlyAddsTheAmount() {
+        fill();
+        forBoth(list -> {
+            final IAEItemStack flagged = craftable(Items.diamond).setStackSize(3);
+            flagged.setCountRequestable(4);
+            list.addStorage(flagged);
+            list.addStorage(stack(Items.emerald, 2));
+        });
+        assertSameContents();
+    }
+
+    @Test
+    void addCraftingMarksStacksCraftable() {
+        fill();
+        forBoth(list -> {
+            list.addCrafting(stack(Items.diamond, 5));
+            list.addCrafting(stack(Items.emerald, 5));
+        });
+        assertSameContents();
+    }
+
+    @Test
+    void addRequestableOnlyAddsTheRequestableCounts() {
+        fill();
+        forBoth(list -> {
+            list.addRequestable(requestable(Items.diamond, 8));
+            final IAEItemStack craftable = requestable(Items.emerald, 6);
+            craftable.setCraftable(true);
+            list.addRequestable(craftable);
+        });
+        assertSameContents();
+    }
+
+    @Test
+    void resetStatusDropsEmptiedStacks() {
+        fill();
+        forBoth(list -> {
+            list.addCrafting(stack(Items.emerald, 0));
+            list.resetStatus();
+            list.add(stack(Items.diamond, 3));
+            list.addRequestable(requestable(Items.apple, 2));
+        });
+        assertSameContents();
+    }
+
+    @Test
+    void findFuzzyMatchesItemList() {
+        fill();
+        assertSameFuzzyMatches();
+
+        // the index built by the first query has to follow later changes
+        forBoth(list -> {
+            list.add(stack(Items.diamond_sword, 390, 1));
+            list.add(AEItemStack.create(new ItemStack(Blocks.planks, 4, 1)));
+        });
+        assertSameFuzzyMatches();
+    }
+
+    @Test
+    void iteratorRemovalRemovesStacks() {
+        fill();
+        assertSameFuzzyMatches();
+
+        final Predicate<IAEItemStack> removed = stack -> stack.getItemDamage() % 2 == 0
+                || stack.getItem() == Items.diamond;
+        forBoth(list -> {
+            for (final Iterator<IAEItemStack> i = list.iterator(); i.hasNext();) {
+                if (removed.test(i.next())) {
+                    i.remove();
+                }
+            }
+        });
+        assertSameContents();
+        assertSameFuzzyMatches();
+
+        // freed slots are reused
+        forBoth(list -> list.add(stack(Items.diamond, 1)));
+        assertSameContents();
+    }
+}
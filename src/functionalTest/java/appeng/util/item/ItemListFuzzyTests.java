@@ -0,0 +1,153 @@
+package appeng.util.item;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import org.junit.jupiter.api.Test;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+
+/**
+ * Compares {@link ItemList#findFuzzy} with the lookup it replaced, which searched a sorted copy of all records.
+ */
+public class ItemListFuzzyTests {
+
+    private static List<ItemStack> storedStacks() {
+        final List<ItemStack> stacks = new ArrayList<>();
+        for (final int damage : new int[] { 0, 1, 100, 390, 780, 1170, 1500, 1561 }) {
+            stacks.add(new ItemStack(Items.diamond_sword, 1, damage));
+        }
+        for (final int damage : new int[] { 0, 125, 250 }) {
+            stacks.add(new ItemStack(Items.iron_pickaxe, 1, damage));
+        }
+        final ItemStack named = new ItemStack(Items.diamond_sword, 1, 100);
+        named.setStackDisplayName("Named");
+        stacks.add(named);
+        for (int meta = 0; meta < 6; meta++) {
+            stacks.add(new ItemStack(Blocks.planks, 3, meta));
+        }
+        for (int meta = 0; meta < 4; meta++) {
+            stacks.add(new ItemStack(Blocks.log, 2, meta));
+        }
+        stacks.add(new ItemStack(Items.dye, 5, 1));
+        stacks.add(new ItemStack(Items.dye, 5, 4));
+        stacks.add(new ItemStack(Items.diamond, 7));
+        stacks.add(new ItemStack(Items.apple, 9));
+        return stacks;
+    }
+
+    private static List<ItemStack> filters() {
+        final List<ItemStack> filters = new ArrayList<>();
+        // damageable
+        filters.add(new ItemStack(Items.diamond_sword, 1, 0));
+        filters.add(new ItemStack(Items.diamond_sword, 1, 800));
+        filters.add(new ItemStack(Items.diamond_sword, 1, 1561));
+        filters.add(new ItemStack(Items.iron_pickaxe, 1, 200));
+        // wildcard
+        filters.add(new ItemStack(Items.diamond_sword, 1, OreDictionary.WILDCARD_VALUE));
+        // ores, planks and logs are registered with a wildcard damage
+        filters.add(new ItemStack(Blocks.planks, 1, 3));
+        filters.add(new ItemStack(Blocks.log, 1, 1));
+        filters.add(new ItemStack(Items.dye, 1, 4));
+        filters.add(new ItemStack(Items.diamond));
+        // neither
+        filters.add(new ItemStack(Items.apple));
+        filters.add(new ItemStack(Items.dye, 1, 1));
+        return filters;
+    }
+
+    /**
+     * The lookup {@link ItemList#findFuzzy} used before it indexed its records by item.
+     */
+    private static List<IAEItemStack> findFuzzyInSortedRecords(final NavigableSet<IAEItemStack> records,
+            final AEItemStack filter, final FuzzyMode fuzzy) {
+        final List<IAEItemStack> output = new ArrayList<>();
+        if (filter.isOre()) {
+            for (final IAEItemStack is : filter.getDefinition().getIsOre().getAEEquivalents()) {
+                final AEItemStack equivalent = (AEItemStack) is;
+                final boolean ignoreMeta = is.getItemDamage() == OreDictionary.WILDCARD_VALUE;
+                output.addAll(
+                        records.subSet(
+                                equivalent.getLow(fuzzy, ignoreMeta),
+                                true,
+                                equivalent.getHigh(fuzzy, ignoreMeta),
+                                true));
+            }
+        } else {
+            output.addAll(records.subSet(filter.getLow(fuzzy, false), true, filter.getHigh(fuzzy, false), true));
+        }
+        return output;
+    }
+
+    private static List<AEItemStack> sorted(final Collection<IAEItemStack> stacks) {
+        final List<AEItemStack> out = new ArrayList<>();
+        for (final IAEItemStack stack : stacks) {
+            out.add((AEItemStack) stack);
+        }
+        out.sort(null);
+        return out;
+    }
+
+    @Test
+    void findFuzzyMatchesSortedRecords() {
+        final ItemList list = new ItemList();
+        final NavigableSet<IAEItemStack> records = new ConcurrentSkipListSet<>();
+        for (final ItemStack stack : storedStacks()) {
+            final IAEItemStack ais = AEItemStack.create(stack);
+            list.add(ais);
+            records.add(ais.copy());
+        }
+
+        for (final ItemStack filterStack : filters()) {
+            final AEItemStack filter = AEItemStack.create(filterStack);
+            for (final FuzzyMode fuzzy : FuzzyMode.values()) {
+                final List<IAEItemStack> expected = findFuzzyInSortedRecords(records, filter, fuzzy);
+                final Collection<IAEItemStack> actual = list.findFuzzy(filter, fuzzy);
+                assertEquals(expected.size(), actual.size(), filter + " " + fuzzy);
+                assertEquals(sorted(expected), sorted(actual), filter + " " + fuzzy);
+            }
+        }
+    }
+
+    @Test
+    void findFuzzyFollowsChangesAfterTheFirstQuery() {
+        final ItemList list = new ItemList();
+        final NavigableSet<IAEItemStack> records = new ConcurrentSkipListSet<>();
+        final List<ItemStack> stacks = storedStacks();
+        final int half = stacks.size() / 2;
+        for (final ItemStack stack : stacks.subList(0, half)) {
+            final IAEItemStack ais = AEItemStack.create(stack);
+            list.add(ais);
+            records.add(ais.copy());
+        }
+
+        // builds the index, the remaining stacks are added to it
+        list.findFuzzy(AEItemStack.create(new ItemStack(Items.diamond_sword)), FuzzyMode.IGNORE_ALL);
+        for (final ItemStack stack : stacks.subList(half, stacks.size())) {
+            final IAEItemStack ais = AEItemStack.create(stack);
+            list.addStorage(ais);
+            records.add(ais.copy());
+        }
+
+        for (final ItemStack filterStack : filters()) {
+            final AEItemStack filter = AEItemStack.create(filterStack);
+            for (final FuzzyMode fuzzy : FuzzyMode.values()) {
+                assertEquals(
+                        sorted(findFuzzyInSortedRecords(records, filter, fuzzy)),
+                        sorted(list.findFuzzy(filter, fuzzy)),
+                        filter + " " + fuzzy);
+            }
+        }
+    }
+}
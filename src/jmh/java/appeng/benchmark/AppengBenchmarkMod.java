@@ -0,0 +1,62 @@
+package appeng.benchmark;
+
+import java.io.File;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ChatComponentText;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+import cpw.mods.fml.common.Mod;
+import cpw.mods.fml.common.Mod.EventHandler;
+import cpw.mods.fml.common.event.FMLServerStartedEvent;
+
+/**
+ * Runs the JMH benchmarks of this package once the server has started, so that they can use the registries and the
+ * mock grids of the functional tests. Started by {@code ./gradlew runBenchmarks}, which writes the results as JSON to
+ * {@code build/jmh/results.json} unless {@code -Pappeng.benchmarks.output} says otherwise.
+ */
+@Mod(
+        modid = "appeng-benchmarks",
+        name = "AE2 Dev Benchmarks",
+        version = "1.0",
+        dependencies = "required-after:appliedenergistics2;after:appeng-tests")
+public class AppengBenchmarkMod {
+
+    @EventHandler
+    public void onServerStarted(FMLServerStartedEvent startedEv) {
+        if (!Boolean.getBoolean("appeng.jmh")) {
+            return;
+        }
+
+        MinecraftServer.getServer().addChatMessage(new ChatComponentText("Running AE2 benchmarks..."));
+        try {
+            runBenchmarks();
+        } catch (final RunnerException e) {
+            // Fail the build if running via `runBenchmarks`
+            if (FMLCommonHandler.instance().getSide().isServer()) {
+                throw new RuntimeException("The benchmarks failed to run", e);
+            }
+        }
+        MinecraftServer.getServer().addChatMessage(new ChatComponentText("Running AE2 benchmarks finished"));
+        MinecraftServer.getServer().initiateShutdown();
+    }
+
+    public void runBenchmarks() throws RunnerException {
+        final File output = new File(System.getProperty("appeng.jmh.output", "./jmh-out/results.json"))
+                .getAbsoluteFile();
+        output.getParentFile().mkdirs();
+
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("appeng.jmh.include", "appeng\\.benchmark\\..*Benchmark"))
+                // a forked JVM would not have a running game
+                .forks(0).resultFormat(ResultFormatType.JSON).result(output.getPath()).addProfiler(GCProfiler.class);
+        new Runner(options.build()).run();
+    }
+}
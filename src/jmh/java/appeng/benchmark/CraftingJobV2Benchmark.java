@@ -0,0 +1,84 @@
+package appeng.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.crafting.v2.CraftingJobV2;
+import appeng.test.DistinctStacks;
+import appeng.test.DummyWorld;
+import appeng.test.mockme.MockAESystem;
+
+/**
+ * Plans a request for the root of a synthetic pattern tree. Every item of the tree below {@link #depth} is crafted by
+ * a processing pattern from {@link #fanOut} other items, the leaves are stored in the network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CraftingJobV2Benchmark {
+
+    private static final int REQUEST_SIZE = 64;
+
+    @Param({ "2", "4", "6" })
+    public int depth;
+
+    @Param({ "2", "3" })
+    public int fanOut;
+
+    private MockAESystem aeSystem;
+    private ItemStack root;
+
+    @Setup
+    public void setup() {
+        int nodes = 0;
+        for (int level = 0, width = 1; level <= this.depth; level++, width *= this.fanOut) {
+            nodes += width;
+        }
+        final List<ItemStack> items = DistinctStacks.get(nodes);
+
+        // the children of the node at index i are at fanOut * i + 1 ... fanOut * i + fanOut
+        this.aeSystem = new MockAESystem(DummyWorld.get());
+        for (int i = 0; i < nodes; i++) {
+            final int firstChild = this.fanOut * i + 1;
+            if (firstChild >= nodes) {
+                final ItemStack leaf = items.get(i).copy();
+                leaf.stackSize = Integer.MAX_VALUE;
+                this.aeSystem.addStoredItem(leaf);
+                continue;
+            }
+
+            final MockAESystem.PatternBuilder pattern = this.aeSystem.newProcessingPattern();
+            for (int c = firstChild; c < firstChild + this.fanOut; c++) {
+                pattern.addInput(items.get(c).copy());
+            }
+            pattern.addOutput(items.get(i).copy()).buildAndAdd();
+        }
+
+        this.root = items.get(0).copy();
+        this.root.stackSize = REQUEST_SIZE;
+    }
+
+    @Benchmark
+    public CraftingJobV2 plan() {
+        final CraftingJobV2 job = this.aeSystem.makeCraftingJob(this.root.copy());
+        while (!job.isDone()) {
+            job.simulateFor(1000);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,79 @@
+package appeng.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.test.DistinctStacks;
+import appeng.util.item.AEItemStack;
+import appeng.util.item.ItemList;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ItemListBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private IAEItemStack[] stacks;
+    private ItemList list;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        final List<ItemStack> pool = DistinctStacks.get(this.size);
+        this.stacks = new IAEItemStack[this.size];
+        this.list = new ItemList();
+        for (int i = 0; i < this.size; i++) {
+            this.stacks[i] = AEItemStack.create(pool.get(i));
+            this.list.add(this.stacks[i]);
+        }
+    }
+
+    private IAEItemStack nextStack() {
+        final IAEItemStack stack = this.stacks[this.next];
+        this.next = (this.next + 1) % this.stacks.length;
+        return stack;
+    }
+
+    /**
+     * Fills an empty list with every stack, reported per list.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ItemList add() {
+        final ItemList out = new ItemList();
+        for (final IAEItemStack stack : this.stacks) {
+            out.add(stack);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public IAEItemStack findPrecise() {
+        return this.list.findPrecise(this.nextStack());
+    }
+
+    @Benchmark
+    public Collection<IAEItemStack> findFuzzy() {
+        return this.list.findFuzzy(this.nextStack(), FuzzyMode.IGNORE_ALL);
+    }
+}
@@ -0,0 +1,102 @@
+package appeng.benchmark;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.AEApi;
+import appeng.api.config.Actionable;
+import appeng.api.networking.security.BaseActionSource;
+import appeng.api.networking.security.ISecurityGrid;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.me.cache.SecurityCache;
+import appeng.me.storage.CellInventory;
+import appeng.me.storage.NetworkInventoryHandler;
+import appeng.test.DistinctStacks;
+import appeng.test.mockme.MockGrid;
+import appeng.util.item.AEItemStack;
+
+/**
+ * Inserts into and extracts from a network storage made of the given number of 64k cells, each holding
+ * {@link #TYPES_PER_CELL} item types that no other cell holds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NetworkInventoryHandlerBenchmark {
+
+    private static final int TYPES_PER_CELL = 16;
+
+    @Param({ "1", "50", "400" })
+    public int cells;
+
+    private final BaseActionSource source = new BaseActionSource();
+    private NetworkInventoryHandler<IAEItemStack> storage;
+    private IAEItemStack[] requests;
+    private int next = 0;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        final MockGrid grid = new MockGrid();
+        final SecurityCache security = grid.getCache(ISecurityGrid.class);
+        this.storage = new NetworkInventoryHandler<>(ITEM_STACK_TYPE, security);
+
+        final List<ItemStack> pool = DistinctStacks.get(this.cells * TYPES_PER_CELL);
+        this.requests = new IAEItemStack[pool.size()];
+        for (int c = 0; c < this.cells; c++) {
+            final ItemStack cell = AEApi.instance().definitions().items().cell64k().maybeStack(1).get();
+            final IMEInventoryHandler<IAEItemStack> handler = (IMEInventoryHandler<IAEItemStack>) CellInventory
+                    .getCell(cell, null, ITEM_STACK_TYPE);
+            for (int t = 0; t < TYPES_PER_CELL; t++) {
+                final int i = c * TYPES_PER_CELL + t;
+                this.requests[i] = AEItemStack.create(pool.get(i));
+                handler.injectItems(this.requests[i].copy().setStackSize(1000), Actionable.MODULATE, this.source);
+            }
+            this.storage.addNewStorage(handler);
+        }
+        this.storage.buildRoutingIndex();
+    }
+
+    private IAEItemStack nextRequest() {
+        final IAEItemStack request = this.requests[this.next];
+        this.next = (this.next + 1) % this.requests.length;
+        return request;
+    }
+
+    @Benchmark
+    public IAEItemStack injectSimulate() {
+        return this.storage.injectItems(this.nextRequest(), Actionable.SIMULATE, this.source);
+    }
+
+    @Benchmark
+    public IAEItemStack extractSimulate() {
+        return this.storage.extractItems(this.nextRequest(), Actionable.SIMULATE, this.source);
+    }
+
+    /**
+     * Extracts a stack and puts it back, so that the cell contents stay the same.
+     */
+    @Benchmark
+    public IAEItemStack extractInjectModulate() {
+        final IAEItemStack extracted = this.storage.extractItems(this.nextRequest(), Actionable.MODULATE, this.source);
+        return this.storage.injectItems(extracted, Actionable.MODULATE, this.source);
+    }
+}
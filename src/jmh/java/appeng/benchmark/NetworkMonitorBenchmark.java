@@ -0,0 +1,69 @@
+package appeng.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.storage.IMEMonitor;
+import appeng.api.storage.StorageChannel;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IItemList;
+import appeng.test.DistinctStacks;
+import appeng.test.DummyWorld;
+import appeng.test.mockme.MockAESystem;
+import appeng.util.item.AEItemStack;
+
+/**
+ * Reads the item list of a network monitor, either from its cache or rebuilt after the stored items changed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NetworkMonitorBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int types;
+
+    private MockAESystem aeSystem;
+    private IMEMonitor<IAEItemStack> monitor;
+    private List<IAEItemStack> change;
+
+    @Setup
+    public void setup() {
+        this.aeSystem = new MockAESystem(DummyWorld.get());
+        final List<ItemStack> pool = DistinctStacks.get(this.types);
+        for (final ItemStack stack : pool) {
+            this.aeSystem.addStoredItem(stack);
+        }
+        this.monitor = this.aeSystem.sgCache.getItemInventory();
+        this.change = Collections.singletonList(AEItemStack.create(pool.get(0)));
+        this.monitor.getStorageList();
+    }
+
+    @Benchmark
+    public IItemList<IAEItemStack> cached() {
+        return this.monitor.getStorageList();
+    }
+
+    @Benchmark
+    public IItemList<IAEItemStack> afterChange() {
+        this.aeSystem.sgCache
+                .postAlterationOfStoredItems(StorageChannel.ITEMS, this.change, this.aeSystem.dummyActionSource);
+        return this.monitor.getStorageList();
+    }
+}
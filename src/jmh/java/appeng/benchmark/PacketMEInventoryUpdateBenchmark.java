@@ -0,0 +1,75 @@
+package appeng.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import net.minecraft.item.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.api.storage.data.IAEItemStack;
+import appeng.core.sync.packets.PacketMEInventoryUpdate;
+import appeng.test.DistinctStacks;
+import appeng.util.item.AEItemStack;
+import cpw.mods.fml.common.network.internal.FMLProxyPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Writes and reads the packet that sends the contents of a network to the terminals.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PacketMEInventoryUpdateBenchmark {
+
+    @Param({ "100", "1000", "10000" })
+    public int stacks;
+
+    private IAEItemStack[] items;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        final Random random = new Random(this.stacks);
+        final List<ItemStack> pool = DistinctStacks.get(this.stacks);
+        this.items = new IAEItemStack[this.stacks];
+        for (int i = 0; i < this.stacks; i++) {
+            this.items[i] = AEItemStack.create(pool.get(i)).setStackSize(1 + random.nextInt(1_000_000));
+        }
+
+        final ByteBuf encoded = this.encode().payload();
+        this.payload = new byte[encoded.readableBytes()];
+        encoded.getBytes(encoded.readerIndex(), this.payload);
+    }
+
+    @Benchmark
+    public FMLProxyPacket encode() throws IOException {
+        final PacketMEInventoryUpdate packet = new PacketMEInventoryUpdate();
+        for (final IAEItemStack item : this.items) {
+            packet.appendItem(item);
+        }
+        return packet.getProxy();
+    }
+
+    @Benchmark
+    public int decode() throws IOException {
+        final ByteBuf stream = Unpooled.wrappedBuffer(this.payload);
+        // the packet id, read by the packet handler
+        stream.readInt();
+        return new PacketMEInventoryUpdate(stream).getSize();
+    }
+}
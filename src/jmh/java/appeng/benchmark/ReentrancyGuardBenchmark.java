@@ -0,0 +1,100 @@
+package appeng.benchmark;
+
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import appeng.util.ReentrancyGuard;
+
+/**
+ * Enters and exits nested network handlers the way a network inject or extract does, once with the thread local
+ * {@link LinkedList} the handlers used before and once with {@link ReentrancyGuard}. Compare the
+ * {@code gc.alloc.rate.norm} of both to see the allocations per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReentrancyGuardBenchmark {
+
+    private static final ThreadLocal<LinkedList<Object>> LINKED_DEPTH = new ThreadLocal<>();
+    private static final ReentrancyGuard GUARD_DEPTH = new ReentrancyGuard();
+
+    /**
+     * Number of nested handlers, e.g. subnetworks reached through storage buses on interfaces.
+     */
+    @Param({ "1", "4", "16" })
+    public int depth;
+
+    private Object[] handlers;
+
+    @Setup
+    public void setup() {
+        this.handlers = new Object[this.depth];
+        for (int i = 0; i < this.depth; i++) {
+            this.handlers[i] = new Object();
+        }
+    }
+
+    @Benchmark
+    public int linkedList() {
+        return this.diveLinkedList(0);
+    }
+
+    @Benchmark
+    public int reentrancyGuard() {
+        return this.diveGuard(0);
+    }
+
+    private int diveLinkedList(final int level) {
+        if (level == this.handlers.length) {
+            return level;
+        }
+
+        final Object handler = this.handlers[level];
+        LinkedList<Object> depth = LINKED_DEPTH.get();
+        if (depth == null) {
+            LINKED_DEPTH.set(depth = new LinkedList<>());
+        }
+        if (depth.contains(handler)) {
+            return level;
+        }
+        depth.push(handler);
+
+        final int reached = this.diveLinkedList(level + 1);
+
+        if (LINKED_DEPTH.get().pop() != handler) {
+            throw new IllegalStateException("Unbalanced handler depth");
+        }
+        return reached;
+    }
+
+    private int diveGuard(final int level) {
+        if (level == this.handlers.length) {
+            return level;
+        }
+
+        final Object handler = this.handlers[level];
+        if (!GUARD_DEPTH.tryEnter(handler)) {
+            return level;
+        }
+
+        final int reached = this.diveGuard(level + 1);
+
+        if (!GUARD_DEPTH.exit(handler)) {
+            throw new IllegalStateException("Unbalanced handler depth");
+        }
+        return reached;
+    }
+}
@@ -38,4 +38,16 @@ public interface IStackWatcherHost {
      * @param chan      storage channel
      */
     void onStackChange(IItemList o, IAEStack fullStack, IAEStack diffStack, BaseActionSource src, StorageChannel chan);
+
+    /**
+     * Watched stacks can change many times per tick. Unless this returns true, and unless disabled in the config,
+     * {@link #onStackChange} is called once per grid tick with the net change of each watched stack, and the source of
+     * its last change. That call comes at the start of the next storage grid tick, so it is up to one tick later than
+     * the change itself. Hosts whose output depends on the exact tick, like redstone output, should return true.
+     *
+     * @return true to be notified of every single change as it happens
+     */
+    default boolean needsImmediateStackChanges() {
+        return false;
+    }
 }
@@ -21,6 +21,7 @@ import appeng.api.networking.IGridHost;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.storage.ICellContainer;
 import appeng.api.storage.ICellProvider;
+import appeng.api.storage.IMEMonitor;
 import appeng.api.storage.IStorageMonitorable;
 import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEStack;
@@ -54,6 +55,50 @@ public interface IStorageGrid extends IGridCache, IStorageMonitorable {
         }
     }
 
+    /**
+     * @return the sum of the sizes of all stacks of the given type stored in the network
+     */
+    default long getStoredCount(IAEStackType<?> type) {
+        final IMEMonitor<?> monitor = this.getMEMonitor(type);
+        if (monitor == null) {
+            return 0;
+        }
+
+        long count = 0;
+        for (final IAEStack<?> stack : monitor.getStorageList()) {
+            count += stack.getStackSize();
+            if (count < 0) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of distinct stacks of the given type stored in the network
+     */
+    default long getStoredTypes(IAEStackType<?> type) {
+        final IMEMonitor<?> monitor = this.getMEMonitor(type);
+        if (monitor == null) {
+            return 0;
+        }
+
+        long types = 0;
+        for (final IAEStack<?> stack : monitor.getStorageList()) {
+            if (stack.getStackSize() > 0) {
+                types++;
+            }
+        }
+        return types;
+    }
+
+    /**
+     * @return the bytes used in the storage cells of the network that hold the given type, as last counted
+     */
+    default double getUsedBytes(IAEStackType<?> type) {
+        return 0;
+    }
+
     /**
      * Used to add a cell provider to the storage system
      * <p>
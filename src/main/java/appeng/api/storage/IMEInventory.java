@@ -16,7 +16,9 @@ package appeng.api.storage;
 import static appeng.util.item.AEFluidStackType.FLUID_STACK_TYPE;
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 
@@ -60,6 +62,39 @@ public interface IMEInventory<StackType extends IAEStack> {
      */
     StackType extractItems(StackType request, Actionable mode, BaseActionSource src);
 
+    /**
+     * Store, or simulate the storing of, several stacks at once. Implementations may override this to check
+     * permissions once, coalesce change notifications and write their contents once for the whole batch.
+     *
+     * @param input stacks to add, may not contain null
+     * @param type  action type
+     * @param src   action source
+     * @return the leftover of every input stack, in input order, with null for stacks that were added completely
+     */
+    default List<StackType> injectItems(Collection<StackType> input, Actionable type, BaseActionSource src) {
+        final List<StackType> leftovers = new ArrayList<>(input.size());
+        for (final StackType stack : input) {
+            leftovers.add(this.injectItems(stack, type, src));
+        }
+        return leftovers;
+    }
+
+    /**
+     * Extract, or simulate the extraction of, several stacks at once. See {@link #injectItems(Collection, Actionable,
+     * BaseActionSource)}.
+     *
+     * @param requests stacks to extract ( with stack size ), may not contain null
+     * @param mode     simulate, or perform action?
+     * @return the extracted stack of every request, in request order, with null for requests that got nothing
+     */
+    default List<StackType> extractItems(Collection<StackType> requests, Actionable mode, BaseActionSource src) {
+        final List<StackType> extracted = new ArrayList<>(requests.size());
+        for (final StackType request : requests) {
+            extracted.add(this.extractItems(request, mode, src));
+        }
+        return extracted;
+    }
+
     /**
      * Request a full report of all available items, storage.
      * 
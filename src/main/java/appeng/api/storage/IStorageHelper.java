@@ -85,6 +85,12 @@ public interface IStorageHelper {
      */
     IItemList<IAEItemStack> createPrimitiveItemList();
 
+    /**
+     * @return a new INSTANCE of {@link IItemList} for items that stores amounts in primitive arrays, the stacks it
+     *         returns are copies that do not write back to the list
+     */
+    IItemList<IAEItemStack> createCompactItemList();
+
     /**
      * @return a new INSTANCE of {@link IItemList} for fluids
      */
@@ -34,6 +34,13 @@ public interface IAEStackType<T extends IAEStack> {
         return this.createList();
     }
 
+    /**
+     * @return a list that uses less memory per entry, whose stacks do not write back to the list
+     */
+    default IItemList<T> createCompactList() {
+        return this.createList();
+    }
+
     @Range(from = 1, to = Integer.MAX_VALUE)
     int getAmountPerUnit();
 
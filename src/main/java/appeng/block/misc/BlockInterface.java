@@ -64,7 +64,7 @@ public class BlockInterface extends AEBaseTileBlock {
     public void onNeighborBlockChange(World worldIn, int x, int y, int z, Block neighbor) {
         TileInterface tile = this.getTileEntity(worldIn, x, y, z);
         if (tile != null) {
-            tile.getInterfaceDuality().updateRedstoneState();
+            tile.getInterfaceDuality().onNeighborChanged();
         }
     }
 
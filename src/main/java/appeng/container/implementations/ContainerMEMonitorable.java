@@ -79,9 +79,10 @@ import appeng.container.AEBaseContainer;
 import appeng.container.guisync.GuiSync;
 import appeng.container.slot.AppEngSlot;
 import appeng.container.slot.SlotRestrictedInput;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.sync.network.NetworkHandler;
-import appeng.core.sync.packets.PacketMEInventoryUpdate;
+import appeng.core.sync.packets.PacketMEInventorySync;
 import appeng.core.sync.packets.PacketMonitorableTypeFilter;
 import appeng.core.sync.packets.PacketValueConfig;
 import appeng.helpers.IPinsHandler;
@@ -98,6 +99,10 @@ import appeng.util.Platform;
 import appeng.util.inv.AdaptorPlayerHand;
 import appeng.util.item.AEFluidStack;
 import appeng.util.item.AEItemStack;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectLongPair;
 import it.unimi.dsi.fastutil.objects.Reference2BooleanMap;
 
@@ -109,6 +114,13 @@ public class ContainerMEMonitorable extends AEBaseContainer
     private final IMEMonitor<IAEItemStack> itemMonitor;
     private final Map<IAEStackType<?>, IMEMonitor<?>> monitors = new IdentityHashMap<>();
     private final Map<IAEStackType<?>, Set<IAEStack<?>>> updateQueue = new IdentityHashMap<>();
+    /**
+     * Server: the id of every stack sent to the client, and the last state sent for each id. Client: the last state
+     * received for each id.
+     */
+    private final Object2IntOpenHashMap<IAEStack<?>> syncIds = new Object2IntOpenHashMap<>();
+    private final Int2ObjectOpenHashMap<IAEStack<?>> syncedStacks = new Int2ObjectOpenHashMap<>();
+    private int ticksSinceSync = 0;
 
     private final IConfigManager clientCM;
     private final ITerminalHost host;
@@ -136,6 +148,7 @@ public class ContainerMEMonitorable extends AEBaseContainer
 
         this.host = monitorable;
         this.clientCM = new ConfigManager(this);
+        this.syncIds.defaultReturnValue(-1);
 
         this.clientCM.registerSetting(Settings.SORT_BY, SortOrder.NAME);
         this.clientCM.registerSetting(Settings.VIEW_MODE, ViewItems.ALL);
@@ -243,35 +256,9 @@ public class ContainerMEMonitorable extends AEBaseContainer
                 }
             }
 
-            try {
-                final PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
-
-                for (var entry : this.updateQueue.entrySet()) {
-                    IItemList list = this.monitors.get(entry.getKey()).getStorageList();
-                    for (IAEStack<?> aes : entry.getValue()) {
-                        final IAEStack<?> send = list.findPrecise(aes);
-                        if (send == null) {
-                            aes.setStackSize(0);
-                            piu.appendItem(aes);
-                        } else {
-                            piu.appendItem(send);
-                        }
-                    }
-                }
-
-                if (!piu.isEmpty()) {
-                    for (var list : this.updateQueue.values()) {
-                        list.clear();
-                    }
-
-                    for (final Object c : this.crafters) {
-                        if (c instanceof EntityPlayer) {
-                            NetworkHandler.instance.sendTo(piu, (EntityPlayerMP) c);
-                        }
-                    }
-                }
-            } catch (final IOException e) {
-                AELog.debug(e);
+            if (++this.ticksSinceSync >= AEConfig.instance.terminalSyncInterval) {
+                this.ticksSinceSync = 0;
+                this.sendQueuedChanges();
             }
 
             this.updatePowerStatus();
@@ -291,6 +278,107 @@ public class ContainerMEMonitorable extends AEBaseContainer
         }
     }
 
+    @SuppressWarnings({ "rawtypes" })
+    private void sendQueuedChanges() {
+        try {
+            PacketMEInventorySync piu = new PacketMEInventorySync();
+
+            for (var entry : this.updateQueue.entrySet()) {
+                IItemList list = this.monitors.get(entry.getKey()).getStorageList();
+                for (IAEStack<?> aes : entry.getValue()) {
+                    final IAEStack<?> send = list.findPrecise(aes);
+                    try {
+                        this.appendChange(piu, aes, send);
+                    } catch (final BufferOverflowException boe) {
+                        this.sendToCrafters(piu);
+
+                        piu = new PacketMEInventorySync();
+                        this.appendChange(piu, aes, send);
+                    }
+                }
+                entry.getValue().clear();
+            }
+
+            this.sendToCrafters(piu);
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+    }
+
+    /**
+     * Appends the current state of a changed stack, only its size if nothing else changed since it was last sent.
+     *
+     * @param current the stack in the storage list, or null if it is no longer stored
+     */
+    private void appendChange(final PacketMEInventorySync piu, final IAEStack<?> changed, final IAEStack<?> current)
+            throws IOException {
+        final int id = this.syncIds.getInt(changed);
+        if (current == null) {
+            // the client never received this stack
+            if (id >= 0) {
+                piu.appendSize(id, 0);
+            }
+        } else if (id >= 0 && hasSameState(this.syncedStacks.get(id), current)) {
+            piu.appendSize(id, current.getStackSize());
+        } else {
+            this.appendStack(piu, current);
+        }
+    }
+
+    private void appendStack(final PacketMEInventorySync piu, final IAEStack<?> stack) throws IOException {
+        final int known = this.syncIds.getInt(stack);
+        final int id = known < 0 ? this.syncIds.size() : known;
+        // only remember the stack once it is in the packet, a full packet is retried in the next one
+        piu.appendStack(id, stack);
+
+        final IAEStack<?> sent = stack.copy();
+        if (known < 0) {
+            this.syncIds.put(sent, id);
+        }
+        this.syncedStacks.put(id, sent);
+    }
+
+    private static boolean hasSameState(final IAEStack<?> a, final IAEStack<?> b) {
+        return a.isCraftable() == b.isCraftable() && a.getCountRequestable() == b.getCountRequestable()
+                && a.getCountRequestableCrafts() == b.getCountRequestableCrafts()
+                && a.getUsedPercent() == b.getUsedPercent();
+    }
+
+    private void sendToCrafters(final PacketMEInventorySync piu) {
+        if (piu.isEmpty()) {
+            return;
+        }
+
+        for (final Object c : this.crafters) {
+            if (c instanceof EntityPlayerMP player) {
+                NetworkHandler.instance.sendTo(piu, player);
+            }
+        }
+    }
+
+    /**
+     * Resolves the ids of a {@link PacketMEInventorySync} received by the client.
+     *
+     * @return the updated stacks, in packet order
+     */
+    public List<IAEStack<?>> applySync(final IntList ids, final List<IAEStack<?>> stacks, final LongList sizes) {
+        final List<IAEStack<?>> list = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            final IAEStack<?> stack = stacks.get(i);
+            if (stack != null) {
+                this.syncedStacks.put(ids.getInt(i), stack.copy());
+                list.add(stack);
+            } else {
+                final IAEStack<?> known = this.syncedStacks.get(ids.getInt(i));
+                if (known != null) {
+                    known.setStackSize(sizes.getLong(i));
+                    list.add(known.copy());
+                }
+            }
+        }
+        return list;
+    }
+
     protected void updatePowerStatus() {
         try {
             if (this.networkNode != null) {
@@ -338,7 +426,7 @@ public class ContainerMEMonitorable extends AEBaseContainer
 
     private void queueInventory(final EntityPlayerMP player) {
         try {
-            PacketMEInventoryUpdate piu = new PacketMEInventoryUpdate();
+            PacketMEInventorySync piu = new PacketMEInventorySync();
 
             for (var monitor : this.monitors.values()) {
                 piu = queueInventoryList(piu, monitor.getStorageList(), player);
@@ -351,17 +439,17 @@ public class ContainerMEMonitorable extends AEBaseContainer
     }
 
     @SuppressWarnings({ "rawtypes" })
-    private PacketMEInventoryUpdate queueInventoryList(PacketMEInventoryUpdate piu, IItemList monitorCache,
+    private PacketMEInventorySync queueInventoryList(PacketMEInventorySync piu, IItemList monitorCache,
             EntityPlayerMP player) {
         try {
             for (final IAEStack<?> send : (IItemList<?>) monitorCache) {
                 try {
-                    piu.appendItem(send);
+                    this.appendStack(piu, send);
                 } catch (final BufferOverflowException boe) {
                     NetworkHandler.instance.sendTo(piu, player);
 
-                    piu = new PacketMEInventoryUpdate();
-                    piu.appendItem(send);
+                    piu = new PacketMEInventorySync();
+                    this.appendStack(piu, send);
                 }
             }
         } catch (Exception ignored) {}
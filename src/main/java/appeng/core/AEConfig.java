@@ -111,6 +111,9 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     public String[] meteoriteValidBlocks = { "examplemod:example_block" };
     public String[] meteoriteInvalidBlocks = { "examplemod:example_block" };
     public int craftingCalculationTimePerTick = 5;
+    public int craftingCalculationThreads = 0;
+    public int craftingPlanParallelism = 0;
+    public int craftingPlanCacheSize = 4096;
     PowerUnits selectedPowerUnit = PowerUnits.AE;
     CellType selectedCellType = CellType.ITEM;
     private double WirelessBaseCost = 8;
@@ -120,10 +123,15 @@ public final class AEConfig extends Configuration implements IConfigurableObject
     private double WirelessBoosterRangeMultiplier = 1;
     private double WirelessBoosterExp = 1.5;
     public int levelEmitterDelay = 40;
+    public int gridTickBudget = 0;
+    public int terminalSyncInterval = 1;
+    public boolean coalesceStackWatchers = true;
     public int craftingCalculatorVersion = 2;
     public int maxCraftingSteps = 2_000_000;
     public int maxCraftingTreeVisualizationSize = 32 * 1024 * 1024; // 32 MiB
     public boolean limitCraftingCPUSpill = true;
+    public boolean compactCellStorage = false;
+    public boolean compactNetworkItemList = false;
     public SearchBoxFocusPriority searchBoxFocusPriority = SearchBoxFocusPriority.NEVER;
 
     public int maxRecursiveDepth = 100;
@@ -250,6 +258,28 @@ public final class AEConfig extends Configuration implements IConfigurableObject
 
         this.levelEmitterDelay = this.get("tickrates", "LevelEmitterDelay", this.levelEmitterDelay)
                 .getInt(this.levelEmitterDelay);
+        this.gridTickBudget = Math.max(
+                0,
+                this.get(
+                        "tickrates",
+                        "GridTickBudget",
+                        this.gridTickBudget,
+                        "Milliseconds per server tick all grids together may spend ticking devices, devices that do not fit are ticked on the next tick. 0 disables the budget")
+                        .getInt(this.gridTickBudget));
+        this.terminalSyncInterval = Math.max(
+                1,
+                this.get(
+                        "tickrates",
+                        "TerminalSyncInterval",
+                        this.terminalSyncInterval,
+                        "Ticks between two inventory updates sent to an open terminal, changes in between are sent together")
+                        .getInt(this.terminalSyncInterval));
+        this.coalesceStackWatchers = this.get(
+                "tickrates",
+                "CoalesceStackWatchers",
+                this.coalesceStackWatchers,
+                "Notify storage monitors once per tick of the net change of their item, one tick late, instead of once per change")
+                .getBoolean(this.coalesceStackWatchers);
         this.debugLogTiming = this.get("debug", "LogTiming", this.debugLogTiming).getBoolean(this.debugLogTiming);
         this.debugPathFinding = this.get("debug", "LogPathFinding", this.debugPathFinding)
                 .getBoolean(this.debugPathFinding);
@@ -267,6 +297,18 @@ public final class AEConfig extends Configuration implements IConfigurableObject
                 .max(4096, Math.min(this.maxCraftingTreeVisualizationSize, 1024 * 1024 * 1024));
         this.limitCraftingCPUSpill = this.get("misc", "LimitCraftingCPUSpill", this.limitCraftingCPUSpill)
                 .getBoolean(this.limitCraftingCPUSpill);
+        this.compactCellStorage = this.get(
+                "misc",
+                "CompactCellStorage",
+                this.compactCellStorage,
+                "Store the contents of storage cells as a single byte array instead of one tag per stack. Cells are converted when they are next written")
+                .getBoolean(this.compactCellStorage);
+        this.compactNetworkItemList = this.get(
+                "misc",
+                "CompactNetworkItemList",
+                this.compactNetworkItemList,
+                "Keep the cached item list of each network in primitive arrays instead of one object per item type, which uses less memory on networks with many types")
+                .getBoolean(this.compactNetworkItemList);
 
         this.maxRecursiveDepth = this.get("networksearch", "maxRecursiveDepth", this.maxRecursiveDepth)
                 .getInt(this.maxRecursiveDepth);
@@ -335,6 +377,30 @@ public final class AEConfig extends Configuration implements IConfigurableObject
             this.craftingCalculationTimePerTick = this
                     .get("craftingCPU", "craftingCalculationTimePerTick", this.craftingCalculationTimePerTick)
                     .getInt(this.craftingCalculationTimePerTick);
+            this.craftingCalculationThreads = Math.max(
+                    0,
+                    this.get(
+                            "craftingCPU",
+                            "craftingCalculationThreads",
+                            this.craftingCalculationThreads,
+                            "Number of background threads used to calculate crafting jobs, 0 calculates them on the world tick instead")
+                            .getInt(this.craftingCalculationThreads));
+            this.craftingPlanParallelism = Math.max(
+                    0,
+                    this.get(
+                            "craftingCPU",
+                            "craftingPlanParallelism",
+                            this.craftingPlanParallelism,
+                            "Number of alternative patterns for the same crafting step that are tried in parallel on copies of the network inventory, 0 tries them one after another. Only used when craftingCalculationThreads is above 0")
+                            .getInt(this.craftingPlanParallelism));
+            this.craftingPlanCacheSize = Math.max(
+                    0,
+                    this.get(
+                            "craftingCPU",
+                            "craftingPlanCacheSize",
+                            this.craftingPlanCacheSize,
+                            "Number of remembered patterns that fully crafted an item in earlier calculations on a network, which are tried first next time, 0 disables")
+                            .getInt(this.craftingPlanCacheSize));
         }
 
         this.updatable = true;
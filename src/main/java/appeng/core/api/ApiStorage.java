@@ -30,6 +30,7 @@ import appeng.crafting.CraftingLink;
 import appeng.util.Platform;
 import appeng.util.item.AEFluidStack;
 import appeng.util.item.AEItemStack;
+import appeng.util.item.CompactItemList;
 import appeng.util.item.FluidList;
 import appeng.util.item.HashBasedItemList;
 import appeng.util.item.IAEStackList;
@@ -81,6 +82,11 @@ public class ApiStorage implements IStorageHelper {
         return new HashBasedItemList();
     }
 
+    @Override
+    public IItemList<IAEItemStack> createCompactItemList() {
+        return new CompactItemList();
+    }
+
     @Override
     public IItemList<IAEFluidStack> createFluidList() {
         return new FluidList();
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.core.sync.packets;
+
+import static appeng.util.Platform.readStackByte;
+import static appeng.util.Platform.writeStackByte;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.entity.player.EntityPlayer;
+
+import appeng.api.storage.data.IAEStack;
+import appeng.client.gui.implementations.GuiMEMonitorable;
+import appeng.container.implementations.ContainerMEMonitorable;
+import appeng.core.AELog;
+import appeng.core.sync.AppEngPacket;
+import appeng.core.sync.network.INetworkInfo;
+import appeng.util.Platform;
+import cpw.mods.fml.common.network.ByteBufUtils;
+import cpw.mods.fml.common.network.internal.FMLProxyPacket;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * Terminal inventory update that refers to stacks by an id assigned by the server for the open container. A stack is
+ * sent in full the first time and whenever anything but its size changes, otherwise only its id and new size are sent.
+ */
+public class PacketMEInventorySync extends AppEngPacket {
+
+    private static final int UNCOMPRESSED_PACKET_BYTE_LIMIT = 16 * 1024 * 1024;
+    private static final int OPERATION_BYTE_LIMIT = 2 * 1024;
+    private static final int TEMP_BUFFER_SIZE = 1024;
+    private static final int STREAM_MASK = 0xff;
+
+    // input.
+    private final IntArrayList ids = new IntArrayList();
+    // null for size only updates
+    private final List<IAEStack<?>> stacks = new ObjectArrayList<>();
+    private final LongArrayList sizes = new LongArrayList();
+
+    // output...
+    @Nullable
+    private final ByteBuf data;
+
+    @Nullable
+    private final GZIPOutputStream compressFrame;
+
+    @Nullable
+    private final ByteBuf record;
+
+    private int writtenBytes = 0;
+    private boolean empty = true;
+
+    // automatic.
+    public PacketMEInventorySync(final ByteBuf stream) throws IOException {
+        this.data = null;
+        this.compressFrame = null;
+        this.record = null;
+
+        final GZIPInputStream gzReader = new GZIPInputStream(new InputStream() {
+
+            @Override
+            public int read() throws IOException {
+                if (stream.readableBytes() <= 0) {
+                    return -1;
+                }
+
+                return stream.readByte() & STREAM_MASK;
+            }
+        });
+
+        final ByteBuf uncompressed = Unpooled.buffer(stream.readableBytes());
+        final byte[] tmp = new byte[TEMP_BUFFER_SIZE];
+        while (gzReader.available() != 0) {
+            final int bytes = gzReader.read(tmp);
+            if (bytes > 0) {
+                uncompressed.writeBytes(tmp, 0, bytes);
+            }
+        }
+        gzReader.close();
+
+        while (uncompressed.readableBytes() > 0) {
+            final int header = ByteBufUtils.readVarInt(uncompressed, 5);
+            final IAEStack<?> stack = (header & 1) != 0 ? readStackByte(uncompressed) : null;
+            this.ids.add(header >>> 1);
+            this.stacks.add(stack);
+            this.sizes.add(stack == null ? Platform.readVarLong(uncompressed) : stack.getStackSize());
+        }
+
+        this.empty = this.ids.isEmpty();
+    }
+
+    // api
+    public PacketMEInventorySync() throws IOException {
+        this.data = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+        this.data.writeInt(this.getPacketID());
+        this.record = Unpooled.buffer(OPERATION_BYTE_LIMIT);
+
+        this.compressFrame = new GZIPOutputStream(new OutputStream() {
+
+            @Override
+            public void write(final int value) throws IOException {
+                PacketMEInventorySync.this.data.writeByte(value);
+            }
+        });
+    }
+
+    @Override
+    @SideOnly(Side.CLIENT)
+    public void clientPacketData(final INetworkInfo network, final AppEngPacket packet, final EntityPlayer player) {
+        if (!(player.openContainer instanceof ContainerMEMonitorable container)) {
+            return;
+        }
+
+        final List<IAEStack<?>> list = container.applySync(this.ids, this.stacks, this.sizes);
+
+        final GuiScreen gs = Minecraft.getMinecraft().currentScreen;
+        if (gs instanceof GuiMEMonitorable) {
+            ((GuiMEMonitorable) gs).postUpdate(list);
+        }
+    }
+
+    @Nullable
+    @Override
+    public FMLProxyPacket getProxy() {
+        try {
+            this.compressFrame.close();
+
+            this.configureWrite(this.data);
+            return super.getProxy();
+        } catch (final IOException e) {
+            AELog.debug(e);
+        }
+
+        return null;
+    }
+
+    /**
+     * Sends the whole stack, the client remembers it under the given id.
+     */
+    public void appendStack(final int id, final IAEStack<?> is) throws IOException, BufferOverflowException {
+        this.record.clear();
+        ByteBufUtils.writeVarInt(this.record, id << 1 | 1, 5);
+        writeStackByte(is, this.record);
+        this.appendRecord();
+    }
+
+    /**
+     * Sends a new size for a stack the client already knows.
+     */
+    public void appendSize(final int id, final long size) throws IOException, BufferOverflowException {
+        this.record.clear();
+        ByteBufUtils.writeVarInt(this.record, id << 1, 5);
+        Platform.writeVarLong(this.record, size);
+        this.appendRecord();
+    }
+
+    private void appendRecord() throws IOException {
+        this.compressFrame.flush();
+        if (this.writtenBytes + this.record.readableBytes() > UNCOMPRESSED_PACKET_BYTE_LIMIT) {
+            throw new BufferOverflowException();
+        } else {
+            this.writtenBytes += this.record.readableBytes();
+            this.compressFrame.write(this.record.array(), this.record.arrayOffset(), this.record.readableBytes());
+            this.empty = false;
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.empty;
+    }
+}
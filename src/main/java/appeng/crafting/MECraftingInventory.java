@@ -237,6 +237,29 @@ public class MECraftingInventory implements IMEInventory<IAEStack> {
         return failedToExtract;
     }
 
+    /**
+     * Takes over the contents of a copy of this inventory made with {@link #MECraftingInventory(MECraftingInventory)},
+     * together with the stacks the copy logged since.
+     */
+    public void replaceWith(final MECraftingInventory copy) {
+        this.inventoryMap.putAll(copy.inventoryMap);
+        if (this.logExtracted && copy.logExtracted) {
+            for (final IAEStack<?> extracted : copy.extractedCache) {
+                this.extractedCache.add(extracted);
+            }
+        }
+        if (this.logInjections && copy.logInjections) {
+            for (final IAEStack<?> injected : copy.injectedCache) {
+                this.injectedCache.add(injected);
+            }
+        }
+        if (this.logMissing && copy.logMissing) {
+            for (final IAEStack<?> missing : copy.missingCache) {
+                this.missingCache.add(missing);
+            }
+        }
+    }
+
     public void setMissingMode(boolean b) {
         this.isMissingMode = b;
     }
@@ -10,6 +10,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -24,6 +33,7 @@ import net.minecraft.world.WorldServer;
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.MutableClassToInstanceMap;
 
 import appeng.api.AEApi;
@@ -39,6 +49,7 @@ import appeng.api.storage.data.IItemList;
 import appeng.container.ContainerNull;
 import appeng.core.AEConfig;
 import appeng.crafting.MECraftingInventory;
+import appeng.crafting.v2.resolvers.CraftableItemResolver.CraftFromPatternTask;
 import appeng.crafting.v2.resolvers.CraftingTask;
 import appeng.crafting.v2.resolvers.CraftingTask.State;
 import appeng.me.cache.CraftingGridCache;
@@ -93,6 +104,10 @@ public final class CraftingContext {
          */
         public final ArrayList<CraftingTask> resolvers = new ArrayList<>(4);
         private boolean isRemainingResolversAllSimulated = true;
+        /**
+         * Whether the alternative patterns of this request are still to be tried in parallel.
+         */
+        private boolean speculate = false;
 
         public RequestInProcessing(CraftingRequest request) {
             this.request = request;
@@ -131,6 +146,34 @@ public final class CraftingContext {
     private final OreListMultiMap<ICraftingPatternDetails> fuzzyPatternCache = new OreListMultiMap<>();
     private final IdentityHashMap<ICraftingPatternDetails, Boolean> isPatternComplexCache = new IdentityHashMap<>();
     private final ClassToInstanceMap<Object> userCaches = MutableClassToInstanceMap.create();
+    /**
+     * The thread that created this context, anything touching the live world or grid has to run on it.
+     */
+    private final Thread ownerThread;
+    private final ConcurrentLinkedQueue<FutureTask<?>> ownerThreadTasks;
+    private volatile boolean detached = false;
+    private ImmutableSet<IAEStack<?>> emitableSnapshot = null;
+    /**
+     * Set on the copies used to try alternative patterns, which never try alternatives themselves.
+     */
+    private final boolean speculative;
+    /**
+     * The round of alternatives this copy belongs to, null if it is not a copy.
+     */
+    private final SpeculationRound round;
+    /**
+     * Requests nested deeper than this don't try their alternatives in parallel, each try copies the whole item model.
+     */
+    private static final int MAX_SPECULATION_DEPTH = 2;
+    /**
+     * Patterns remembered from earlier calculations on this grid, null if not available.
+     */
+    private final CraftingPlanCache planCache;
+    private final int planVersion;
+    /**
+     * Patterns that fully crafted a request in this calculation, published to the plan cache once it finishes.
+     */
+    private final Map<CraftingPlanCache.Key, ICraftingPatternDetails> knownPatterns = new HashMap<>();
 
     public CraftingContext(@Nonnull World world, @Nonnull IGrid meGrid, @Nonnull BaseActionSource actionSource) {
         this.world = world;
@@ -142,6 +185,114 @@ public final class CraftingContext {
         this.byproductsInventory = new MECraftingInventory();
         this.availableCache = new MECraftingInventory(sg, false, false, false);
         this.availablePatterns = craftingGrid.getCraftingMultiPatterns();
+        this.ownerThread = Thread.currentThread();
+        this.ownerThreadTasks = new ConcurrentLinkedQueue<>();
+        this.speculative = false;
+        this.round = null;
+        if (craftingGrid instanceof CraftingGridCache cgc && AEConfig.instance.craftingPlanCacheSize > 0) {
+            this.planCache = cgc.getPlanCache();
+            this.planVersion = this.planCache.getVersion();
+        } else {
+            this.planCache = null;
+            this.planVersion = 0;
+        }
+    }
+
+    /**
+     * A detached copy of the given context's inventories, used to try one pattern without affecting the original. Its
+     * calls to the owner thread go through the original's queue.
+     */
+    private CraftingContext(@Nonnull CraftingContext parent, @Nonnull SpeculationRound round) {
+        this.world = parent.world;
+        this.meGrid = parent.meGrid;
+        this.craftingGrid = parent.craftingGrid;
+        this.actionSource = parent.actionSource;
+        this.itemModel = new MECraftingInventory(parent.itemModel);
+        this.byproductsInventory = new MECraftingInventory(parent.byproductsInventory);
+        this.availableCache = parent.availableCache;
+        this.availablePatterns = parent.availablePatterns;
+        this.crafterIconCache.putAll(parent.crafterIconCache);
+        this.isPatternComplexCache.putAll(parent.isPatternComplexCache);
+        this.emitableSnapshot = parent.emitableSnapshot;
+        this.ownerThread = parent.ownerThread;
+        this.ownerThreadTasks = parent.ownerThreadTasks;
+        this.detached = true;
+        this.speculative = true;
+        this.round = round;
+        this.planCache = parent.planCache;
+        this.planVersion = parent.planVersion;
+        this.knownPatterns.putAll(parent.knownPatterns);
+    }
+
+    /**
+     * Takes an immutable snapshot of the remaining live grid state the resolvers read (crafter icons and emitable
+     * stacks), so that {@link #doWork()} can be called from a crafting calculation thread afterwards. Must be called on
+     * the thread that created the context.
+     */
+    public void detach() {
+        if (detached) {
+            return;
+        }
+        if (craftingGrid instanceof CraftingGridCache cgc) {
+            this.emitableSnapshot = cgc.getEmitableItems();
+        }
+        for (final ImmutableList<ICraftingPatternDetails> patternSet : availablePatterns.values()) {
+            for (final ICraftingPatternDetails pattern : patternSet) {
+                getCrafterIconForPattern(pattern);
+            }
+        }
+        this.detached = true;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * Runs the given call on the thread that owns this context. When called from a calculation thread this blocks until
+     * the owner thread picks it up in {@link #runOwnerThreadTasks()}.
+     */
+    public <T> T callOnOwnerThread(Callable<T> call) {
+        try {
+            if (Thread.currentThread() == ownerThread) {
+                return call.call();
+            }
+            final FutureTask<T> task = new FutureTask<>(call);
+            ownerThreadTasks.add(task);
+            while (true) {
+                try {
+                    return task.get(50, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ignored) {
+                    if (isCancelled()) {
+                        task.cancel(false);
+                        throw new InterruptedException();
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Executes the calls queued by calculation threads through {@link #callOnOwnerThread(Callable)}.
+     */
+    public void runOwnerThreadTasks() {
+        FutureTask<?> task;
+        while ((task = ownerThreadTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    public boolean canEmitFor(@Nonnull IAEStack<?> stack) {
+        if (emitableSnapshot != null) {
+            return emitableSnapshot.contains(stack);
+        }
+        return craftingGrid.canEmitFor(stack);
     }
 
     /**
@@ -164,6 +315,10 @@ public final class CraftingContext {
         }
         final RequestInProcessing processing = new RequestInProcessing(request);
         processing.resolvers.addAll(CraftingCalculations.tryResolveCraftingRequest(request, this));
+        processing.speculate = !preferKnownPattern(processing) && !speculative
+                && AEConfig.instance.craftingPlanParallelism > 0
+                && request.parentRequests.size() < MAX_SPECULATION_DEPTH
+                && CraftingGridCache.isCraftingPoolThread();
         processing.refresh();
         Collections.reverse(processing.resolvers); // We remove from the end for efficient ArrayList usage
         liveRequests.add(processing);
@@ -174,7 +329,216 @@ public final class CraftingContext {
         queueNextTaskOf(processing, true);
     }
 
+    /**
+     * Tries the alternative patterns next in line for a request in parallel, each on its own copy of the inventories,
+     * and takes over the result of the highest priority one that fully crafts the request without simulating missing
+     * items. Only done on crafting calculation threads, so that waiting for the copies never blocks the world tick.
+     *
+     * @return If the result of a copy was taken over
+     */
+    private boolean speculateAlternatives(RequestInProcessing processing) {
+        final CraftingRequest request = processing.request;
+        final List<CraftFromPatternTask> candidates = new ArrayList<>();
+        // resolvers are removed from the end
+        for (int i = processing.resolvers.size() - 1; i >= 0
+                && candidates.size() < AEConfig.instance.craftingPlanParallelism; i--) {
+            if (processing.resolvers.get(i) instanceof CraftFromPatternTask craft && !craft.allowSimulation
+                    && !craft.isComplex) {
+                candidates.add(craft);
+            } else {
+                break;
+            }
+        }
+        if (candidates.isEmpty()) {
+            // other resolvers, like the stored items, go first
+            return false;
+        }
+        processing.speculate = false;
+        if (candidates.size() < 2) {
+            return false;
+        }
+
+        final ExecutorService pool = CraftingGridCache.getSpeculationPool();
+        final SpeculationRound speculation = new SpeculationRound();
+        final List<CraftingContext> forks = new ArrayList<>(candidates.size());
+        final List<CraftingRequest> probes = new ArrayList<>(candidates.size());
+        final List<Future<Boolean>> results = new ArrayList<>(candidates.size());
+        for (CraftFromPatternTask candidate : candidates) {
+            // copy on this thread, iterating the inventories cleans them up
+            final CraftingContext fork = new CraftingContext(this, speculation);
+            final CraftingRequest probe = new CraftingRequest(
+                    request.parentRequest,
+                    request.stack.copy().setStackSize(request.remainingToProcess),
+                    request.substitutionMode,
+                    false,
+                    request.craftingMode,
+                    request.acceptableSubstituteFn);
+            probe.patternParents.addAll(request.patternParents);
+            final ICraftingPatternDetails pattern = candidate.pattern;
+            final int priority = candidate.priority;
+            forks.add(fork);
+            probes.add(probe);
+            results.add(
+                    pool.submit(
+                            () -> fork.tryPattern(
+                                    probe,
+                                    new CraftFromPatternTask(probe, pattern, priority, false, false))));
+        }
+
+        int chosen = -1;
+        try {
+            for (int i = 0; i < results.size(); i++) {
+                if (awaitSpeculation(results.get(i))) {
+                    chosen = i;
+                    break;
+                }
+            }
+        } finally {
+            speculation.cancelled = true;
+        }
+        if (chosen < 0) {
+            return false;
+        }
+        adopt(processing, forks.get(chosen), probes.get(chosen));
+        return true;
+    }
+
+    /**
+     * Takes over the state of a copy that fully crafted the given request in place of this context's own.
+     */
+    private void adopt(RequestInProcessing processing, CraftingContext fork, CraftingRequest probe) {
+        final CraftingRequest request = processing.request;
+        itemModel.replaceWith(fork.itemModel);
+        byproductsInventory.replaceWith(fork.byproductsInventory);
+        wasSimulated |= fork.wasSimulated;
+        // the first live request of the copy is the probe itself
+        liveRequests.addAll(fork.liveRequests.subList(1, fork.liveRequests.size()));
+        resolvedTasks.addAll(fork.resolvedTasks);
+        knownPatterns.putAll(fork.knownPatterns);
+        request.patternParents.addAll(probe.patternParents);
+        for (CraftingRequest.UsedResolverEntry used : probe.usedResolvers) {
+            request.fulfill(used.task, used.resolvedStack, this);
+        }
+    }
+
+    /**
+     * Moves the pattern that fully crafted the same stack in an earlier request in front of the other patterns of the
+     * same priority.
+     *
+     * @return If such a pattern was found and no pattern of a higher priority is tried before it
+     */
+    private boolean preferKnownPattern(RequestInProcessing processing) {
+        if (planCache == null || processing.request.remainingToProcess <= 0) {
+            return false;
+        }
+        final CraftingPlanCache.Key key = CraftingPlanCache
+                .key(processing.request.stack, processing.request.remainingToProcess);
+        ICraftingPatternDetails known = knownPatterns.get(key);
+        if (known == null) {
+            known = planCache.get(key, planVersion);
+            if (known == null) {
+                return false;
+            }
+        }
+
+        CraftFromPatternTask firstOfPriority = null;
+        boolean higherPriorityFirst = false;
+        for (CraftingTask task : processing.resolvers) {
+            if (task instanceof CraftFromPatternTask craft && !craft.allowSimulation) {
+                if (firstOfPriority == null || firstOfPriority.priority != craft.priority) {
+                    higherPriorityFirst = firstOfPriority != null;
+                    firstOfPriority = craft;
+                }
+                if (craft.pattern.equals(known)) {
+                    // the player's pattern priorities always win over what worked before
+                    moveInFront(processing, craft, firstOfPriority);
+                    return !higherPriorityFirst;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void moveInFront(RequestInProcessing processing, CraftingTask task, CraftingTask first) {
+        if (task != first) {
+            processing.resolvers.remove(task);
+            processing.resolvers.add(processing.resolvers.indexOf(first), task);
+        }
+    }
+
+    private void rememberPattern(CraftFromPatternTask task) {
+        final CraftingRequest request = task.request;
+        if (planCache == null || task.allowSimulation
+                || task.isComplex
+                || task.getTotalCraftsDone() <= 0
+                || request.wasSimulated
+                || request.remainingToProcess > 0) {
+            return;
+        }
+        knownPatterns.put(CraftingPlanCache.key(request.stack, request.stack.getStackSize()), task.pattern);
+    }
+
+    /**
+     * Hands the patterns that worked in this calculation to the grid's plan cache for later calculations.
+     */
+    void publishKnownPatterns() {
+        if (!speculative && planCache != null && !knownPatterns.isEmpty()) {
+            planCache.putAll(knownPatterns, planVersion);
+        }
+    }
+
+    private static boolean awaitSpeculation(Future<Boolean> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException | CancellationException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isCancelled() {
+        return (round != null && round.cancelled) || Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * Runs the calculation of a single pattern on a speculative copy.
+     *
+     * @return whether the request was fully crafted without simulating missing items
+     */
+    private boolean tryPattern(CraftingRequest probe, CraftFromPatternTask task) {
+        if (task.getState() == State.FAILURE) {
+            return false;
+        }
+        final RequestInProcessing processing = new RequestInProcessing(probe);
+        processing.resolvers.add(task);
+        processing.refresh();
+        liveRequests.add(processing);
+        probe.liveRequest = processing;
+        queueNextTaskOf(processing, true);
+
+        CraftingTask.State state;
+        try {
+            do {
+                if (isCancelled()) {
+                    return false;
+                }
+                state = doWork();
+            } while (state.needsMoreWork);
+        } catch (CraftingStepLimitExceeded e) {
+            return false;
+        }
+        return state == State.SUCCESS && probe.remainingToProcess <= 0 && !probe.wasSimulated;
+    }
+
     public IAEItemStack getCrafterIconForPattern(@Nonnull ICraftingPatternDetails pattern) {
+        if (detached) {
+            // populated for every available pattern by detach(), the live grid must not be touched from here
+            final IAEItemStack icon = crafterIconCache.get(pattern);
+            return icon != null ? icon
+                    : AEItemStack.create(AEApi.instance().definitions().blocks().iface().maybeStack(1).orNull());
+        }
         return crafterIconCache.computeIfAbsent(pattern, ignored -> {
             if (craftingGrid instanceof CraftingGridCache) {
                 final List<ICraftingMedium> mediums = ((CraftingGridCache) craftingGrid).getMediums(pattern);
@@ -253,10 +617,14 @@ public final class CraftingContext {
             simulatedWorkbench.setInventorySlotContents(i, inputSlots[i] == null ? null : inputSlots[i].getItemStack());
         }
         if (world instanceof WorldServer) {
-            FMLCommonHandler.instance().firePlayerCraftingEvent(
-                    Platform.getPlayer((WorldServer) world),
-                    pattern.getOutput(simulatedWorkbench, world),
-                    simulatedWorkbench);
+            // crafting event handlers expect to run on the server thread
+            callOnOwnerThread(() -> {
+                FMLCommonHandler.instance().firePlayerCraftingEvent(
+                        Platform.getPlayer((WorldServer) world),
+                        pattern.getOutput(simulatedWorkbench, world),
+                        simulatedWorkbench);
+                return null;
+            });
         }
         IAEItemStack[] output = new IAEItemStack[9];
         for (int i = 0; i < output.length; i++) {
@@ -332,6 +700,9 @@ public final class CraftingContext {
             resolvedTasks.add(frontTask);
             tasksToProcess.removeFirst();
             finishedState = CraftingTask.State.SUCCESS;
+            if (frontTask instanceof CraftFromPatternTask craft) {
+                rememberPattern(craft);
+            }
         } else if (newState == CraftingTask.State.FAILURE) {
             tasksToProcess.clear();
             finishedState = CraftingTask.State.FAILURE;
@@ -379,6 +750,10 @@ public final class CraftingContext {
         if (request.request.remainingToProcess <= 0 || request.resolvers.isEmpty()) {
             return false;
         }
+        if (request.speculate && speculateAlternatives(request)) {
+            // fully crafted by the adopted copy
+            return false;
+        }
         CraftingTask nextResolver = request.resolvers.remove(request.resolvers.size() - 1);
         request.refresh();
         if (addResolverTask && !request.resolvers.isEmpty()) {
@@ -391,6 +766,14 @@ public final class CraftingContext {
         return true;
     }
 
+    /**
+     * Shared by the copies trying the alternatives of one request, tells them to stop once a result was chosen.
+     */
+    private static final class SpeculationRound {
+
+        volatile boolean cancelled = false;
+    }
+
     /**
      * A task to call queueNextTaskOf after a resolver gets computed to check if more resolving is needed for the same
      * request-in-processing.
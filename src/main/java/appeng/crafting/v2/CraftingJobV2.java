@@ -19,12 +19,14 @@ import appeng.api.networking.crafting.ICraftingJob;
 import appeng.api.networking.security.BaseActionSource;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.crafting.MECraftingInventory;
 import appeng.crafting.v2.CraftingContext.RequestInProcessing;
 import appeng.crafting.v2.CraftingRequest.SubstitutionMode;
 import appeng.crafting.v2.resolvers.CraftingTask;
 import appeng.hooks.TickHandler;
+import appeng.me.cache.CraftingGridCache;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import cpw.mods.fml.common.network.ByteBufUtils;
 import io.netty.buffer.ByteBuf;
@@ -33,6 +35,10 @@ import io.netty.buffer.Unpooled;
 /**
  * A new, self-contained implementation of the crafting calculator. Does an iterative search on the crafting recipe
  * tree.
+ * <p>
+ * When {@link AEConfig#craftingCalculationThreads} is set, the search runs on {@link CraftingGridCache#getCraftingPool()}
+ * against the snapshot taken when the job was created, and the world tick only hands over server-thread calls and
+ * publishes the result.
  */
 public class CraftingJobV2<StackType extends IAEStack<StackType>>
         implements ICraftingJob<StackType>, Future<ICraftingJob<StackType>>, ITreeSerializable {
@@ -54,7 +60,11 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
         CANCELLED
     }
 
-    protected State state = State.RUNNING;
+    protected volatile State state = State.RUNNING;
+    /**
+     * Set when the simulation runs on the crafting pool, completed once the background search stops.
+     */
+    protected Future<CraftingTask.State> backgroundWork = null;
 
     public CraftingJobV2(final World world, final IGrid meGrid, final BaseActionSource actionSource,
             final StackType what, final ICraftingCallback callback) {
@@ -66,8 +76,9 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
         this.context = new CraftingContext(world, meGrid, actionSource);
         this.callback = callback;
         this.originalRequest = new CraftingRequest(what, SubstitutionMode.PRECISE_FRESH, true, craftingMode);
-        this.context.addRequest(this.originalRequest);
+        // before adding the request, alternative patterns may be tried on copies of the item model right away
         this.context.itemModel.ignore(what);
+        this.context.addRequest(this.originalRequest);
     }
 
     public CraftingJobV2(CraftingTreeSerializer serializer, ITreeSerializable parent) throws IOException {
@@ -196,6 +207,9 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
         if (this.state != State.RUNNING) {
             return false;
         }
+        if (backgroundWork != null) {
+            return pollBackgroundWork();
+        }
         final long startTime = System.currentTimeMillis();
         final long finishTime = startTime + milli;
         CraftingTask.State taskState = CraftingTask.State.NEEDS_MORE_WORK;
@@ -205,32 +219,98 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
                 totalByteCost = -1;
             } while (taskState.needsMoreWork && System.currentTimeMillis() < finishTime && (state == State.RUNNING));
         } catch (Exception e) {
-            AELog.error(e, "Error while simulating crafting for " + originalRequest);
-            errorMessage = e.toString();
-            this.state = State.CANCELLED;
-            if (callback != null) {
-                callback.calculationComplete(this);
-            }
+            fail(e);
             return false;
         }
 
         if (!taskState.needsMoreWork) {
-            getByteTotal();
-            this.state = State.FINISHED;
-            if (AELog.isCraftingDebugLogEnabled()) {
-                AELog.log(Level.INFO, "Crafting job for %s finished with resolved steps:", originalRequest.toString());
-                AELog.logSimple(Level.INFO, context.toString());
-            }
-            if (callback != null) {
-                callback.calculationComplete(this);
-            }
+            finish();
         }
 
         return taskState.needsMoreWork;
     }
 
+    /**
+     * Services the calls the background search queued for the owning thread, and publishes its result once it has
+     * stopped. Never waits for the background search.
+     *
+     * @return Whether the background search is still running
+     */
+    private boolean pollBackgroundWork() {
+        context.runOwnerThreadTasks();
+        if (!backgroundWork.isDone()) {
+            return true;
+        }
+        final CraftingTask.State taskState;
+        try {
+            taskState = backgroundWork.get();
+        } catch (ExecutionException e) {
+            fail(e.getCause() instanceof Exception ex ? ex : e);
+            return false;
+        } catch (InterruptedException e) {
+            fail(e);
+            return false;
+        }
+        if (taskState.needsMoreWork) {
+            // the background search was interrupted, continue on the owning thread
+            backgroundWork = null;
+            return true;
+        }
+        totalByteCost = -1;
+        finish();
+        return false;
+    }
+
+    /**
+     * Blocks the owning thread until the background search stops or the time runs out, while still servicing its calls.
+     */
+    private void awaitBackgroundWork(long milli) {
+        final long finishTime = System.currentTimeMillis() + milli;
+        while (backgroundWork != null && pollBackgroundWork() && System.currentTimeMillis() < finishTime) {
+            try {
+                backgroundWork.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | InterruptedException | ExecutionException ignored) {
+                // the outcome is picked up by the next poll
+            }
+        }
+    }
+
+    private CraftingTask.State simulateInBackground() {
+        CraftingTask.State taskState = CraftingTask.State.NEEDS_MORE_WORK;
+        while (taskState.needsMoreWork && state == State.RUNNING && !Thread.currentThread().isInterrupted()) {
+            taskState = context.doWork();
+        }
+        return taskState;
+    }
+
+    private void fail(Exception e) {
+        AELog.error(e, "Error while simulating crafting for " + originalRequest);
+        errorMessage = e.toString();
+        this.state = State.CANCELLED;
+        if (callback != null) {
+            callback.calculationComplete(this);
+        }
+    }
+
+    private void finish() {
+        getByteTotal();
+        context.publishKnownPatterns();
+        this.state = State.FINISHED;
+        if (AELog.isCraftingDebugLogEnabled()) {
+            AELog.log(Level.INFO, "Crafting job for %s finished with resolved steps:", originalRequest.toString());
+            AELog.logSimple(Level.INFO, context.toString());
+        }
+        if (callback != null) {
+            callback.calculationComplete(this);
+        }
+    }
+
     @Override
     public Future<ICraftingJob<StackType>> schedule() {
+        if (AEConfig.instance.craftingCalculationThreads > 0 && backgroundWork == null) {
+            context.detach();
+            backgroundWork = CraftingGridCache.getCraftingPool().submit(this::simulateInBackground);
+        }
         TickHandler.INSTANCE.registerCraftingSimulation(this.context.world, this);
         return this;
     }
@@ -260,6 +340,9 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
             return false;
         } else {
             this.state = State.CANCELLED;
+            if (backgroundWork != null) {
+                backgroundWork.cancel(mayInterruptIfRunning);
+            }
             return true;
         }
     }
@@ -276,6 +359,9 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
 
     @Override
     public CraftingJobV2 get() throws InterruptedException, ExecutionException {
+        if (this.state == State.RUNNING && backgroundWork != null) {
+            this.awaitBackgroundWork(Long.MAX_VALUE / 2);
+        }
         this.simulateFor(Integer.MAX_VALUE);
         return this;
     }
@@ -284,7 +370,10 @@ public class CraftingJobV2<StackType extends IAEStack<StackType>>
     public CraftingJobV2 get(long timeout, TimeUnit unit)
             throws InterruptedException, ExecutionException, TimeoutException {
         try {
-            this.simulateFor((int) unit.convert(timeout, TimeUnit.MILLISECONDS));
+            if (this.state == State.RUNNING && backgroundWork != null) {
+                this.awaitBackgroundWork(TimeUnit.MILLISECONDS.convert(timeout, unit));
+            }
+            this.simulateFor((int) TimeUnit.MILLISECONDS.convert(timeout, unit));
         } catch (Exception e) {
             throw new ExecutionException(e);
         }
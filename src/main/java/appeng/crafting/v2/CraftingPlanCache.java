@@ -0,0 +1,77 @@
+package appeng.crafting.v2;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import appeng.api.networking.crafting.ICraftingPatternDetails;
+import appeng.api.storage.data.IAEStack;
+import appeng.core.AEConfig;
+
+/**
+ * Remembers which pattern fully crafted a stack in earlier calculations on the same grid, so that later requests for
+ * about the same amount try that pattern before the others of the same priority. Amounts are grouped by powers of two.
+ * Cleared whenever the patterns of the grid change.
+ */
+public final class CraftingPlanCache {
+
+    private final Map<Key, ICraftingPatternDetails> patterns = new ConcurrentHashMap<>();
+    private volatile int version = 0;
+
+    public int getVersion() {
+        return this.version;
+    }
+
+    public synchronized void invalidate() {
+        this.version++;
+        this.patterns.clear();
+    }
+
+    @Nullable
+    public ICraftingPatternDetails get(@Nonnull Key key, int version) {
+        return version == this.version ? this.patterns.get(key) : null;
+    }
+
+    /**
+     * Stores the patterns found by a calculation that started at the given version, unless the patterns changed since.
+     * Holds the same lock as {@link #invalidate()}, so that patterns of an older version are never stored after it.
+     */
+    public synchronized void putAll(@Nonnull Map<Key, ICraftingPatternDetails> found, int version) {
+        if (version != this.version) {
+            return;
+        }
+        if (this.patterns.size() + found.size() > AEConfig.instance.craftingPlanCacheSize) {
+            this.patterns.clear();
+        }
+        this.patterns.putAll(found);
+    }
+
+    public static Key key(@Nonnull IAEStack<?> stack, long amount) {
+        return new Key(stack.copy(), 64 - Long.numberOfLeadingZeros(amount));
+    }
+
+    public static final class Key {
+
+        private final IAEStack<?> stack;
+        private final int amountBucket;
+
+        private Key(IAEStack<?> stack, int amountBucket) {
+            this.stack = stack;
+            this.amountBucket = amountBucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return this.amountBucket == key.amountBucket && this.stack.equals(key.stack);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.stack.hashCode() + this.amountBucket;
+        }
+    }
+}
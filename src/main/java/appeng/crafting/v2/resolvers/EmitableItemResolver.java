@@ -104,7 +104,7 @@ public class EmitableItemResolver implements CraftingRequestResolver {
     @Override
     public List<CraftingTask> provideCraftingRequestResolvers(@Nonnull CraftingRequest request,
             @Nonnull CraftingContext context) {
-        if (context.craftingGrid.canEmitFor(request.stack)) {
+        if (context.canEmitFor(request.stack)) {
             return Collections.singletonList(new EmitItemTask(request));
         } else {
             return Collections.emptyList();
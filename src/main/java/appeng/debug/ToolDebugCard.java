@@ -38,6 +38,7 @@ import appeng.hooks.TickHandler;
 import appeng.items.AEBaseItem;
 import appeng.me.Grid;
 import appeng.me.GridNode;
+import appeng.me.cache.PathGridCache;
 import appeng.me.cache.TickManagerCache;
 import appeng.parts.p2p.PartP2PTunnel;
 import appeng.tile.networking.TileController;
@@ -113,6 +114,15 @@ public class ToolDebugCard extends AEBaseItem {
                         this.outputMsg(player, "Cable Distance: " + length);
                     }
 
+                    if (pg instanceof PathGridCache pgc) {
+                        this.outputMsg(
+                                player,
+                                "Channel Assignments: " + pgc.getFullPathingRuns()
+                                        + " full, "
+                                        + pgc.getIncrementalPathingRuns()
+                                        + " incremental");
+                    }
+
                     if (center.getMachine() instanceof PartP2PTunnel) {
                         this.outputMsg(player, "Freq: " + ((PartP2PTunnel) center.getMachine()).getFrequency());
                     }
@@ -132,6 +142,17 @@ public class ToolDebugCard extends AEBaseItem {
                             this.outputMsg(player, c.getSimpleName() + " - " + o + "; " + this.timeMeasurement(nanos));
                         }
                     }
+
+                    this.outputMsg(
+                            player,
+                            "Ticking Devices: " + tmc.getAwakeDevices()
+                                    + " awake, "
+                                    + tmc.getSleepingDevices()
+                                    + " sleeping; "
+                                    + tmc.getDevicesTickedLastTick()
+                                    + " ticked last tick, "
+                                    + String.format("%.2f", tmc.getAverageDevicesTicked())
+                                    + " on average");
                 } else {
                     this.outputMsg(player, "No Node Available.");
                 }
@@ -19,6 +19,7 @@ import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 import static com.gtnewhorizon.gtnhlib.capability.Capabilities.getCapability;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.OptionalInt;
+import java.util.Set;
 
 import net.minecraft.block.Block;
 import net.minecraft.inventory.IInventory;
@@ -37,6 +39,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.tileentity.TileEntityChest;
 import net.minecraft.util.MovingObjectPosition;
 import net.minecraft.util.Vec3;
 import net.minecraft.world.World;
@@ -158,6 +161,10 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
     private boolean hasConfig = false;
     private int priority;
     public List<ICraftingPatternDetails> craftingList = null;
+    // lookup copy of craftingList for pushPattern, rebuilt when the list changes
+    private Set<ICraftingPatternDetails> craftingSet = null;
+    private List<ICraftingPatternDetails> craftingSetSource = null;
+    private final Neighbor[] neighbors = new Neighbor[6];
     public boolean sharedInventory = false;
     private List<IAEStack<?>> waitingToSend = null;
     private IMEInventory<IAEItemStack> destination;
@@ -415,6 +422,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
                 if (!found) {
                     i.remove();
+                    this.invalidateCraftingSet();
                 }
             }
         }
@@ -534,10 +542,28 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
                 details.setPriority(slot - 36 * this.getPriority());
                 this.craftingList.add(details);
+                this.invalidateCraftingSet();
             }
         }
     }
 
+    protected void invalidateCraftingSet() {
+        this.craftingSet = null;
+    }
+
+    private boolean hasPattern(final ICraftingPatternDetails details) {
+        if (this.craftingList == null) {
+            return false;
+        }
+
+        if (this.craftingSet == null || this.craftingSetSource != this.craftingList) {
+            this.craftingSet = new HashSet<>(this.craftingList);
+            this.craftingSetSource = this.craftingList;
+        }
+
+        return this.craftingSet.contains(details);
+    }
+
     protected boolean hasItemsToSend() {
         return this.waitingToSend != null && !this.waitingToSend.isEmpty();
     }
@@ -1202,7 +1228,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
     @Override
     public boolean pushPattern(final ICraftingPatternDetails patternDetails, final InventoryCrafting table) {
-        if (this.hasItemsToSend() || !this.gridProxy.isActive() || !this.craftingList.contains(patternDetails)) {
+        if (this.hasItemsToSend() || !this.gridProxy.isActive() || !this.hasPattern(patternDetails)) {
             scheduledReason = ScheduledReason.SOMETHING_STUCK;
             return false;
         }
@@ -1241,12 +1267,11 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
         final ArrayList<VerifiedAcceptors> verifiedSides = new ArrayList<>();
 
         for (final ForgeDirection s : possibleDirections) {
-            final TileEntity te = w
-                    .getTileEntity(tile.xCoord + s.offsetX, tile.yCoord + s.offsetY, tile.zCoord + s.offsetZ);
+            final Neighbor neighbor = this.getNeighbor(w, tile, s);
 
-            if (te == null) continue;
+            if (neighbor == null || neighbor.ignored) continue;
 
-            if (te.getClass().getName().equals("li.cil.oc.common.tileentity.Adapter")) continue;
+            final TileEntity te = neighbor.te;
 
             if (te instanceof ICraftingMachine cm) {
                 if (cm.acceptsPlans()) {
@@ -1276,7 +1301,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
                 }
             }
 
-            final InventoryAdaptor ad = InventoryAdaptor.getAdaptor(te, s.getOpposite());
+            final InventoryAdaptor ad = neighbor.getAdaptor();
             if (ad != null) {
                 foundTarget = true;
                 if (hasNotItemOrFluid && !(ad instanceof AdaptorDualityInterface) && !(ad instanceof AdaptorMEChest)) {
@@ -1378,10 +1403,10 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
             boolean allAreBusy = true;
 
             for (final ForgeDirection s : possibleDirections) {
-                final TileEntity te = w
-                        .getTileEntity(tile.xCoord + s.offsetX, tile.yCoord + s.offsetY, tile.zCoord + s.offsetZ);
-                if (te != null && te.getClass().getName().equals("li.cil.oc.common.tileentity.Adapter")) continue;
-                final InventoryAdaptor ad = InventoryAdaptor.getAdaptor(te, s.getOpposite());
+                final Neighbor neighbor = this.getNeighbor(w, tile, s);
+                if (neighbor == null || neighbor.ignored) continue;
+                final TileEntity te = neighbor.te;
+                final InventoryAdaptor ad = neighbor.getAdaptor();
                 if (ad != null) {
                     if (ad.simulateRemove(1, null, null) == null || inventoryCountsAsEmpty(te, ad, s.getOpposite())) {
                         allAreBusy = false;
@@ -1405,6 +1430,45 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
         return busy;
     }
 
+    /**
+     * Looks up the tile on the given side, reusing the last lookup until a neighbor changed or the tile went away.
+     */
+    private Neighbor getNeighbor(final World w, final TileEntity tile, final ForgeDirection s) {
+        final Neighbor cached = this.neighbors[s.ordinal()];
+        if (cached != null && !cached.te.isInvalid()
+                && w.blockExists(cached.te.xCoord, cached.te.yCoord, cached.te.zCoord)) {
+            return cached;
+        }
+
+        final TileEntity te = w
+                .getTileEntity(tile.xCoord + s.offsetX, tile.yCoord + s.offsetY, tile.zCoord + s.offsetZ);
+        final Neighbor neighbor = te == null ? null : new Neighbor(te, s.getOpposite());
+        this.neighbors[s.ordinal()] = neighbor;
+        return neighbor;
+    }
+
+    private static final class Neighbor {
+
+        private final TileEntity te;
+        private final ForgeDirection side;
+        private final boolean ignored;
+        // a chest can turn into a double chest without notifying us, so its adaptor is looked up every time
+        private final boolean cacheAdaptor;
+        private final InventoryAdaptor adaptor;
+
+        private Neighbor(final TileEntity te, final ForgeDirection side) {
+            this.te = te;
+            this.side = side;
+            this.ignored = te.getClass().getName().equals("li.cil.oc.common.tileentity.Adapter");
+            this.cacheAdaptor = !(te instanceof TileEntityChest);
+            this.adaptor = this.ignored || !this.cacheAdaptor ? null : InventoryAdaptor.getAdaptor(te, side);
+        }
+
+        private InventoryAdaptor getAdaptor() {
+            return this.cacheAdaptor ? this.adaptor : InventoryAdaptor.getAdaptor(this.te, this.side);
+        }
+    }
+
     private boolean sameGrid(final IGrid grid) throws GridAccessException {
         return grid == this.gridProxy.getGrid();
     }
@@ -1660,6 +1724,7 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
 
         // Update the priority of stored patterns.
         this.craftingList = null;
+        this.invalidateCraftingSet();
         this.updateCraftingList();
 
         try {
@@ -1761,6 +1826,11 @@ public class DualityInterface implements IGridTickable, IStorageMonitorable, IIn
         return unlockStacks;
     }
 
+    public void onNeighborChanged() {
+        Arrays.fill(this.neighbors, null);
+        this.updateRedstoneState();
+    }
+
     public void updateRedstoneState() {
         // reset cache to undecided
         redstoneState = YesNo.UNDECIDED;
@@ -10,10 +10,13 @@
 
 package appeng.hooks;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.WeakHashMap;
 import java.util.concurrent.BlockingDeque;
@@ -32,6 +35,7 @@ import com.google.common.collect.Multimap;
 import appeng.api.AEApi;
 import appeng.api.networking.IGridNode;
 import appeng.api.networking.crafting.ICraftingJob;
+import appeng.api.networking.ticking.ITickManager;
 import appeng.api.parts.CableRenderMode;
 import appeng.api.util.AEColor;
 import appeng.core.AEConfig;
@@ -42,6 +46,8 @@ import appeng.core.worlddata.WorldData;
 import appeng.entity.EntityFloatingItem;
 import appeng.me.Grid;
 import appeng.me.NetworkList;
+import appeng.me.cache.TickManagerCache;
+import appeng.me.storage.CellInventory;
 import appeng.tile.AEBaseTile;
 import appeng.util.IWorldCallable;
 import appeng.util.Platform;
@@ -54,6 +60,14 @@ import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
 public class TickHandler {
 
     public static final TickHandler INSTANCE = new TickHandler();
+    /**
+     * Grids flagged as important first, then those that had to defer devices on their last tick.
+     */
+    private static final Comparator<Grid> GRID_TICK_ORDER = Comparator.comparingInt(Grid::getPriority).reversed()
+            .thenComparing(g -> {
+                final TickManagerCache tmc = getTickManager(g);
+                return tmc == null || tmc.getDevicesDeferredLastTick() == 0;
+            });
     private final Queue<IWorldCallable<?>> serverQueue = new LinkedList<>();
     private final Multimap<World, ICraftingJob> craftingJobs = LinkedListMultimap.create();
     private final WeakHashMap<World, Queue<IWorldCallable<?>>> callQueue = new WeakHashMap<>();
@@ -64,6 +78,7 @@ public class TickHandler {
     private CableRenderMode crm = CableRenderMode.Standard;
     // must be a thread safe collection since this can be called from finalizer thread
     private final BlockingDeque<Integer> callListToDelete = new LinkedBlockingDeque<>();
+    private long gridTicksOverBudget = 0;
 
     public HashMap<Integer, PlayerColor> getPlayerColors() {
         if (Platform.isServer()) {
@@ -146,6 +161,7 @@ public class TickHandler {
     public void onWorldSave(final WorldEvent.Save event) {
         if (Platform.isServer()) {
             WorldData.instance().spawnData().flush();
+            CellInventory.flushDirtyCells();
         }
     }
 
@@ -196,9 +212,10 @@ public class TickHandler {
             }
 
             // tick networks.
-            for (final Grid g : this.getRepo().networks) {
-                g.update();
-            }
+            this.tickNetworks(repo);
+
+            // write the cells changed during this tick
+            CellInventory.flushDirtyCells();
 
             // cross world queue.
             this.processQueue(this.serverQueue, null);
@@ -212,6 +229,53 @@ public class TickHandler {
         }
     }
 
+    private void tickNetworks(final HandlerRep repo) {
+        final int budget = AEConfig.instance.gridTickBudget;
+        if (budget <= 0) {
+            for (final Grid g : repo.networks) {
+                g.update();
+            }
+            return;
+        }
+
+        final List<Grid> order = repo.tickOrder;
+        order.clear();
+        order.addAll(repo.networks);
+        order.sort(GRID_TICK_ORDER);
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+        boolean overBudget = false;
+        for (final Grid g : order) {
+            final TickManagerCache tmc = getTickManager(g);
+            if (tmc != null) {
+                tmc.setTickDeadline(deadline);
+            }
+
+            g.update();
+
+            if (tmc != null && tmc.getDevicesDeferredLastTick() > 0) {
+                overBudget = true;
+            }
+        }
+        order.clear();
+
+        if (overBudget) {
+            this.gridTicksOverBudget++;
+        }
+    }
+
+    private static TickManagerCache getTickManager(final Grid g) {
+        return g.getCache(ITickManager.class) instanceof TickManagerCache tmc ? tmc : null;
+    }
+
+    /**
+     * @return The number of server ticks on which at least one grid deferred devices to stay within
+     *         {@link AEConfig#gridTickBudget}.
+     */
+    public long getGridTicksOverBudget() {
+        return this.gridTicksOverBudget;
+    }
+
     private void deleteCallLists() {
         // we have only one consumer, so this is safe
         // even if we missed some, we will delete them next tick.
@@ -265,6 +329,7 @@ public class TickHandler {
         private Queue<AEBaseTile> tiles = new LinkedList<>();
 
         private Collection<Grid> networks = new NetworkList();
+        private final List<Grid> tickOrder = new ArrayList<>();
 
         private void clear() {
             this.tiles = new LinkedList<>();
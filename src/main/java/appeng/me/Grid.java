@@ -11,6 +11,7 @@
 package appeng.me;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -19,6 +20,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.WeakHashMap;
 
 import appeng.api.AEApi;
 import appeng.api.networking.IGrid;
@@ -51,6 +53,15 @@ public class Grid implements IGrid {
     private static final int PROFILING_SAMPLE_COUNT = 200;
     private int timeStatisticsIndex = 0;
     private boolean profilingPassedFullCycle = false;
+    /**
+     * The subnets reachable from this grid, cleared whenever a node joins or leaves this grid or one of the reachable
+     * grids, or one of their storage buses changes its target.
+     */
+    private final Map<Class<? extends IGridHost>, NetworkList> recursiveConnections = new HashMap<>();
+    /**
+     * The grids whose cached subnets include this grid.
+     */
+    private final Set<Grid> reachedFrom = Collections.newSetFromMap(new WeakHashMap<>());
 
     public Grid(final GridNode center) {
         this.pivot = center;
@@ -73,7 +84,11 @@ public class Grid implements IGrid {
         center.setGrid(this);
     }
 
-    int getPriority() {
+    /**
+     * @return The flags set by {@link #setImportantFlag}, grids with a higher value are ticked first when the server
+     *         runs out of grid tick budget.
+     */
+    public int getPriority() {
         return this.priority;
     }
 
@@ -81,7 +96,11 @@ public class Grid implements IGrid {
         return this.myStorage;
     }
 
-    Map<Class<? extends IGridCache>, IGridCache> getCaches() {
+    /**
+     * @return The caches of this grid by the class they were registered with, in the order {@link #update()} ticks
+     *         them
+     */
+    public Map<Class<? extends IGridCache>, IGridCache> getCaches() {
         return this.caches;
     }
 
@@ -98,6 +117,8 @@ public class Grid implements IGrid {
     }
 
     void remove(final GridNode gridNode) {
+        this.invalidateTopology();
+
         for (final IGridCache c : this.caches.values()) {
             final IGridHost machine = gridNode.getMachine();
             c.removeNode(gridNode, machine);
@@ -124,6 +145,8 @@ public class Grid implements IGrid {
     }
 
     void add(final GridNode gridNode) {
+        this.invalidateTopology();
+
         final Class<? extends IGridHost> mClass = gridNode.getMachineClass();
 
         MachineSet nodes = this.machines.get(mClass);
@@ -320,7 +343,33 @@ public class Grid implements IGrid {
     @Override
     public NetworkList getAllRecursiveGridConnections(Class<? extends IGridHost> accessType) {
         if (accessType == null) return null;
-        return getAllRecursiveGridConnections(accessType, new HashSet<>(), 0);
+
+        NetworkList connections = this.recursiveConnections.get(accessType);
+        if (connections == null) {
+            connections = getAllRecursiveGridConnections(accessType, new HashSet<>(), 0);
+            this.recursiveConnections.put(accessType, connections);
+            for (final Grid reached : connections) {
+                reached.reachedFrom.add(this);
+            }
+        }
+
+        final NetworkList result = new NetworkList();
+        result.addAll(connections);
+        return result;
+    }
+
+    /**
+     * Drops the cached subnets of this grid and of the grids that reach it, after a change that can change the subnets
+     * reachable through this grid.
+     */
+    public void invalidateTopology() {
+        this.recursiveConnections.clear();
+        if (!this.reachedFrom.isEmpty()) {
+            for (final Grid grid : this.reachedFrom) {
+                grid.recursiveConnections.clear();
+            }
+            this.reachedFrom.clear();
+        }
     }
 
     private HashMap<IGridHost, IGrid> getSubnetGridMap(Class<? extends IGridHost> accessType) {
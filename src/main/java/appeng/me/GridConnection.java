@@ -33,6 +33,7 @@ import appeng.api.util.IReadOnlyCollection;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
+import appeng.me.cache.PathGridCache;
 import appeng.me.pathfinding.IPathItem;
 import appeng.util.Platform;
 import appeng.util.ReadOnlyCollection;
@@ -95,7 +96,11 @@ public class GridConnection implements IGridConnection, IPathItem {
 
         // a connection was destroyed RE-PATH!!
         final IPathingGrid p = this.sideA.getInternalGrid().getCache(IPathingGrid.class);
-        p.repath();
+        if (p instanceof PathGridCache pathGridCache) {
+            pathGridCache.connectionRemoved(this);
+        } else {
+            p.repath();
+        }
 
         this.sideA.removeConnection(this);
         this.sideB.removeConnection(this);
@@ -258,7 +263,11 @@ public class GridConnection implements IGridConnection, IPathItem {
             AELog.info("Repath is triggered by adding connection from [%s] to [%s]", aCoordinates, bCoordinates);
             AELog.printStackTrace(Level.INFO);
         }
-        p.repath();
+        if (p instanceof PathGridCache pathGridCache) {
+            pathGridCache.connectionAdded(this);
+        } else {
+            p.repath();
+        }
 
         this.sideA.addConnection(this);
         this.sideB.addConnection(this);
@@ -87,6 +87,9 @@ public class GridNode implements IGridNode, IPathItem {
      * need to check that {@code dense cable 1} can accept the additional channel. If this is true then dense cables
      * {@code 2} and {@code 3} can always accept it. Same for regular cables, so it is enough to check that
      * {@code dense cable 1} and {@code cable 1} can accept it, massively speeding up the assignment for large trees.
+     * <p>
+     * Kept after pathing so that nodes attached by an {@link appeng.me.pathfinding.IncrementalPathingCalculation} can
+     * derive theirs from their parent, and cleared when the node leaves its grid.
      */
     @Nullable
     private GridNode highestSimilarAncestor = null;
@@ -507,6 +510,7 @@ public class GridNode implements IGridNode, IPathItem {
         this.myStorage = s;
         this.usedChannels = 0;
         this.lastUsedChannels = 0;
+        this.highestSimilarAncestor = null;
     }
 
     @Override
@@ -609,8 +613,6 @@ public class GridNode implements IGridNode, IPathItem {
 
     @Override
     public void finalizeChannels() {
-        this.highestSimilarAncestor = null;
-
         if (hasFlag(GridFlags.CANNOT_CARRY)) {
             return;
         }
@@ -20,6 +20,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -27,9 +28,9 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.WeakHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
-import java.util.concurrent.ThreadFactory;
 import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnull;
@@ -82,28 +83,47 @@ import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
 import appeng.crafting.CraftingLink;
 import appeng.crafting.CraftingLinkNexus;
 import appeng.crafting.CraftingWatcher;
 import appeng.crafting.v2.CraftingJobV2;
+import appeng.crafting.v2.CraftingPlanCache;
 import appeng.me.cluster.implementations.CraftingCPUCluster;
 import appeng.me.helpers.GenericInterestManager;
 import appeng.tile.crafting.TileCraftingStorageTile;
 import appeng.tile.crafting.TileCraftingTile;
 import appeng.util.ItemSorters;
 import appeng.util.item.OreListMultiMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 public class CraftingGridCache
         implements ICraftingGrid, ICraftingProviderHelper, ICellProvider, IMEInventoryHandler<IAEStack> {
 
     private static final ExecutorService CRAFTING_POOL;
+    private static final ExecutorService SPECULATION_POOL;
     private static final Comparator<ICraftingPatternDetails> COMPARATOR = (firstDetail,
             nextDetail) -> nextDetail.getPriority() - firstDetail.getPriority();
 
     static {
-        final ThreadFactory factory = ar -> new Thread(ar, "AE Crafting Calculator");
-
-        CRAFTING_POOL = Executors.newCachedThreadPool(factory);
+        final ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("AE Crafting Calculator " + thread.getPoolIndex());
+            return thread;
+        };
+        final int threads = AEConfig.instance != null ? AEConfig.instance.craftingCalculationThreads : 0;
+
+        // async mode keeps queued jobs in submission order, idle workers steal from busy ones
+        CRAFTING_POOL = new ForkJoinPool(Math.max(1, threads), factory, null, true);
+
+        final ForkJoinPool.ForkJoinWorkerThreadFactory speculationFactory = pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("AE Crafting Speculation " + thread.getPoolIndex());
+            return thread;
+        };
+        final int branches = AEConfig.instance != null ? AEConfig.instance.craftingPlanParallelism : 0;
+        // separate from the calculation pool, calculations block while waiting for their alternatives
+        SPECULATION_POOL = new ForkJoinPool(Math.max(1, branches), speculationFactory, null, true);
     }
 
     private final Set<CraftingCPUCluster> craftingCPUClusters = new HashSet<>();
@@ -116,6 +136,14 @@ public class CraftingGridCache
     private final Map<IAEItemStack, ImmutableList<ICraftingPatternDetails>> craftableItemsLegacy = new HashMap<>();
     private final Map<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> craftableItems = new HashMap<>();
     private final Set<IAEStack<?>> emitableItems = new HashSet<>();
+    // the patterns producing each craftable, the order is applied when they are copied into craftableItems
+    private final Map<IAEStack<?>, Set<ICraftingPatternDetails>> patternsByOutput = new HashMap<>();
+    // how many providers made each stack emitable
+    private final Object2IntOpenHashMap<IAEStack<?>> emitableCounts = new Object2IntOpenHashMap<>();
+    // what each provider added in its last provideCrafting call
+    private final Map<ICraftingProvider, ProviderPatterns> providerPatterns = new HashMap<>();
+    private final Set<ICraftingProvider> dirtyProviders = new HashSet<>();
+    private boolean fullRebuildNeeded = false;
     private final Map<String, CraftingLinkNexus> craftingLinks = new HashMap<>();
     private final Multimap<IAEStack, CraftingWatcher> interests = HashMultimap.create();
     private final GenericInterestManager<CraftingWatcher> interestManager = new GenericInterestManager<>(
@@ -123,6 +151,7 @@ public class CraftingGridCache
     private IStorageGrid storageGrid;
     private IEnergyGrid energyGrid;
     private boolean updateList = false;
+    private final CraftingPlanCache planCache = new CraftingPlanCache();
     private static int pauseRebuilds = 0;
     private static Set<CraftingGridCache> rebuildNeeded = new HashSet<>();
 
@@ -178,9 +207,9 @@ public class CraftingGridCache
             this.updateList = true;
         }
 
-        if (machine instanceof ICraftingProvider) {
-            this.craftingProviders.remove(machine);
-            this.updatePatterns();
+        if (machine instanceof ICraftingProvider provider) {
+            this.craftingProviders.remove(provider);
+            this.updatePatterns(provider);
         }
     }
 
@@ -204,9 +233,9 @@ public class CraftingGridCache
             this.updateList = true;
         }
 
-        if (machine instanceof ICraftingProvider) {
-            this.craftingProviders.add((ICraftingProvider) machine);
-            this.updatePatterns();
+        if (machine instanceof ICraftingProvider provider) {
+            this.craftingProviders.add(provider);
+            this.updatePatterns(provider);
         }
     }
 
@@ -234,40 +263,66 @@ public class CraftingGridCache
             ImmutableSet<CraftingGridCache> needed = ImmutableSet.copyOf(rebuildNeeded);
             rebuildNeeded.clear();
             for (CraftingGridCache cache : needed) {
-                cache.updatePatterns();
+                cache.rebuildPatterns();
             }
         }
     }
 
     private void updatePatterns() {
+        this.fullRebuildNeeded = true;
+        this.rebuildPatterns();
+    }
+
+    /**
+     * Only the patterns of the given provider changed, or it was added or removed.
+     */
+    private void updatePatterns(final ICraftingProvider provider) {
+        this.dirtyProviders.add(provider);
+        this.rebuildPatterns();
+    }
+
+    private void rebuildPatterns() {
         // coalesce change events during a grid traversal to a single rebuild
         if (pauseRebuilds != 0) {
             rebuildNeeded.add(this);
             return;
         }
 
-        // erase list.
-        this.craftingMethods.clear();
-        this.craftableItems.clear();
-        this.craftableItemSubstitutes.clear();
-        this.emitableItems.clear();
+        this.planCache.invalidate();
 
-        // re-create list..
-        for (final ICraftingProvider provider : this.craftingProviders) {
-            provider.provideCrafting(this);
-        }
+        final Set<IAEStack<?>> changed;
+        if (this.fullRebuildNeeded) {
+            this.fullRebuildNeeded = false;
 
-        setPatternsFromCraftingMethods();
+            // erase list.
+            this.craftingMethods.clear();
+            this.craftableItems.clear();
+            this.craftableItemsLegacy.clear();
+            this.craftableItemSubstitutes.clear();
+            this.emitableItems.clear();
+            this.patternsByOutput.clear();
+            this.emitableCounts.clear();
+            this.providerPatterns.clear();
+
+            // re-create list..
+            this.dirtyProviders.addAll(this.craftingProviders);
+            this.updateDirtyProviders();
+            changed = this.craftableItems.keySet();
+        } else {
+            changed = this.updateDirtyProviders();
+        }
 
         for (IAEStackType<?> type : AEStackTypeRegistry.getAllTypes()) {
             List<IAEStack<?>> list = new ArrayList<>();
-            for (IAEStack<?> craftable : this.craftableItems.keySet()) {
+            for (IAEStack<?> craftable : changed) {
                 if (craftable.getStackType() == type) {
                     list.add(craftable);
                 }
             }
 
-            this.storageGrid.postAlterationOfStoredItems(type, list, new BaseActionSource());
+            if (!list.isEmpty()) {
+                this.storageGrid.postAlterationOfStoredItems(type, list, new BaseActionSource());
+            }
         }
 
         for (final ICraftingPostPatternChangeListener listener : this.postPatternChangeListeners) {
@@ -275,6 +330,130 @@ public class CraftingGridCache
         }
     }
 
+    /**
+     * Asks the changed providers for their patterns again and applies the difference to the previous ones.
+     *
+     * @return the craftables whose patterns changed
+     */
+    private Set<IAEStack<?>> updateDirtyProviders() {
+        final Set<IAEStack<?>> changed = new HashSet<>();
+        boolean substitutesChanged = false;
+
+        for (final ICraftingProvider provider : this.dirtyProviders) {
+            final ProviderPatterns previous = this.providerPatterns.remove(provider);
+            final ProviderPatterns current = new ProviderPatterns();
+            if (this.craftingProviders.contains(provider)) {
+                provider.provideCrafting(current);
+                this.providerPatterns.put(provider, current);
+            }
+
+            if (previous != null) {
+                for (final CraftingOption option : previous.options) {
+                    if (!current.options.contains(option)) {
+                        substitutesChanged |= this.removeCraftingOption(option, changed);
+                    }
+                }
+                for (final IAEStack<?> emitable : previous.emitables) {
+                    if (!current.emitables.contains(emitable) && this.emitableCounts.addTo(emitable, -1) == 1) {
+                        this.emitableCounts.removeInt(emitable);
+                        this.emitableItems.remove(emitable);
+                    }
+                }
+            }
+
+            for (final CraftingOption option : current.options) {
+                if (previous == null || !previous.options.contains(option)) {
+                    substitutesChanged |= this.addCraftingOption(option, changed);
+                }
+            }
+            for (final IAEStack<?> emitable : current.emitables) {
+                if ((previous == null || !previous.emitables.contains(emitable))
+                        && this.emitableCounts.addTo(emitable, 1) == 0) {
+                    this.emitableItems.add(emitable);
+                }
+            }
+        }
+        this.dirtyProviders.clear();
+
+        for (final IAEStack<?> craftable : changed) {
+            final Set<ICraftingPatternDetails> patterns = this.patternsByOutput.get(craftable);
+            if (patterns == null) {
+                this.craftableItems.remove(craftable);
+                this.craftableItemsLegacy.remove(stackConvert(craftable));
+            } else {
+                final Set<ICraftingPatternDetails> sorted = new TreeSet<>(COMPARATOR);
+                sorted.addAll(patterns);
+                this.craftableItems.put(craftable, ImmutableList.copyOf(sorted));
+                this.craftableItemsLegacy.put(stackConvert(craftable), ImmutableList.copyOf(sorted));
+            }
+        }
+
+        if (substitutesChanged) {
+            this.craftableItemSubstitutes.clear();
+            for (final Entry<IAEStack<?>, Set<ICraftingPatternDetails>> e : this.patternsByOutput.entrySet()) {
+                if (e.getKey() instanceof IAEItemStack ais) {
+                    for (final ICraftingPatternDetails details : e.getValue()) {
+                        if (details.canBeSubstitute()) {
+                            this.craftableItemSubstitutes.put(ais, details);
+                        }
+                    }
+                }
+            }
+            this.craftableItemSubstitutes.freeze();
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return whether the pattern is new and can be substituted
+     */
+    private boolean addCraftingOption(final CraftingOption option, final Set<IAEStack<?>> changed) {
+        final List<ICraftingMedium> mediums = this.craftingMethods.get(option.pattern);
+        if (mediums != null) {
+            mediums.add(option.medium);
+            return false;
+        }
+
+        final List<ICraftingMedium> newMediums = new ArrayList<>();
+        newMediums.add(option.medium);
+        this.craftingMethods.put(option.pattern, newMediums);
+        for (final IAEStack<?> out : option.pattern.getAEOutputs()) {
+            final IAEStack<?> craftable = toCraftable(out);
+            this.patternsByOutput.computeIfAbsent(craftable, k -> new HashSet<>()).add(option.pattern);
+            changed.add(craftable);
+        }
+        return option.pattern.canBeSubstitute();
+    }
+
+    /**
+     * @return whether the pattern is gone and could be substituted
+     */
+    private boolean removeCraftingOption(final CraftingOption option, final Set<IAEStack<?>> changed) {
+        final List<ICraftingMedium> mediums = this.craftingMethods.get(option.pattern);
+        if (mediums == null || !mediums.remove(option.medium) || !mediums.isEmpty()) {
+            return false;
+        }
+
+        this.craftingMethods.remove(option.pattern);
+        for (final IAEStack<?> out : option.pattern.getAEOutputs()) {
+            final IAEStack<?> craftable = toCraftable(out);
+            final Set<ICraftingPatternDetails> patterns = this.patternsByOutput.get(craftable);
+            if (patterns != null && patterns.remove(option.pattern) && patterns.isEmpty()) {
+                this.patternsByOutput.remove(craftable);
+            }
+            changed.add(craftable);
+        }
+        return option.pattern.canBeSubstitute();
+    }
+
+    private static IAEStack<?> toCraftable(final IAEStack<?> out) {
+        final IAEStack<?> craftable = out.copy();
+        craftable.reset();
+        craftable.setCraftable(true);
+        return craftable;
+    }
+
     /** Only for unit test usage */
     public void setMockPatternsFromMethods() {
         this.craftableItems.clear();
@@ -352,7 +531,11 @@ public class CraftingGridCache
 
     @MENetworkEventSubscribe
     public void updateCPUClusters(final MENetworkCraftingPatternChange c) {
-        this.updatePatterns();
+        if (c.provider != null && this.craftingProviders.contains(c.provider)) {
+            this.updatePatterns(c.provider);
+        } else {
+            this.updatePatterns();
+        }
     }
 
     @Override
@@ -468,6 +651,13 @@ public class CraftingGridCache
         return null;
     }
 
+    /**
+     * @return An immutable copy of the stacks that can be emitted, safe to read from crafting calculation threads.
+     */
+    public ImmutableSet<IAEStack<?>> getEmitableItems() {
+        return ImmutableSet.copyOf(this.emitableItems);
+    }
+
     @Override
     public ImmutableMap<IAEStack<?>, ImmutableList<ICraftingPatternDetails>> getCraftingMultiPatterns() {
         return ImmutableMap.copyOf(this.craftableItems);
@@ -512,12 +702,30 @@ public class CraftingGridCache
     }
 
     /**
-     * @return The task pool for executing crafting calculations.
+     * @return The work-stealing pool for executing crafting calculations off the server thread.
      */
     public static ExecutorService getCraftingPool() {
         return CRAFTING_POOL;
     }
 
+    /**
+     * @return Whether the current thread is one of the {@link #getCraftingPool()} threads.
+     */
+    public static boolean isCraftingPoolThread() {
+        return Thread.currentThread() instanceof ForkJoinWorkerThread worker && worker.getPool() == CRAFTING_POOL;
+    }
+
+    public CraftingPlanCache getPlanCache() {
+        return this.planCache;
+    }
+
+    /**
+     * @return The pool that tries alternative patterns of a crafting calculation in parallel.
+     */
+    public static ExecutorService getSpeculationPool() {
+        return SPECULATION_POOL;
+    }
+
     @Override
     public Future<ICraftingJob> beginCraftingJob(final World world, final IGrid grid, final BaseActionSource actionSrc,
             final IAEItemStack slotItem, final ICraftingCallback cb) {
@@ -725,4 +933,50 @@ public class CraftingGridCache
             // no..
         }
     }
+
+    /**
+     * Records the crafting options and emitable stacks one provider adds.
+     */
+    private static final class ProviderPatterns implements ICraftingProviderHelper {
+
+        private final Set<CraftingOption> options = new LinkedHashSet<>();
+        private final Set<IAEStack<?>> emitables = new HashSet<>();
+
+        @Override
+        public void addCraftingOption(final ICraftingMedium medium, final ICraftingPatternDetails api) {
+            this.options.add(new CraftingOption(medium, api));
+        }
+
+        @Override
+        public void setEmitable(final IAEItemStack someItem) {
+            this.emitables.add(someItem.copy());
+        }
+
+        @Override
+        public void setEmitable(final IAEStack<?> someItem) {
+            this.emitables.add(someItem.copy());
+        }
+    }
+
+    private static final class CraftingOption {
+
+        private final ICraftingMedium medium;
+        private final ICraftingPatternDetails pattern;
+
+        private CraftingOption(final ICraftingMedium medium, final ICraftingPatternDetails pattern) {
+            this.medium = medium;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CraftingOption other && this.medium == other.medium
+                    && this.pattern.equals(other.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.medium) + this.pattern.hashCode();
+        }
+    }
 }
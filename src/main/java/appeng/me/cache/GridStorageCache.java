@@ -13,9 +13,11 @@ package appeng.me.cache;
 import static appeng.util.item.AEFluidStackType.FLUID_STACK_TYPE;
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -55,6 +57,7 @@ import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
 import appeng.core.AEConfig;
+import appeng.me.cache.helpers.NetworkStorageSnapshot;
 import appeng.me.helpers.GenericInterestManager;
 import appeng.me.storage.ItemWatcher;
 import appeng.me.storage.MEInventoryHandler;
@@ -73,6 +76,10 @@ public class GridStorageCache implements IStorageGrid {
     private final Map<IAEStackType<?>, NetworkMonitor<?>> monitors = new IdentityHashMap<>();
     private final Map<IAEStackType<?>, NetworkInventoryHandler<?>> inventoryHandlers = new IdentityHashMap<>();
     private final HashMap<IGridNode, IStackWatcher> watchers = new HashMap<>();
+    /**
+     * Net changes of watched stacks, delivered to the watchers on the next tick. Keyed by the queued difference.
+     */
+    private final Map<IAEStack<?>, QueuedStackChange> queuedStackChanges = new LinkedHashMap<>();
     private double itemBytesTotal;
     private double itemBytesUsed;
     private long itemTypesTotal;
@@ -102,6 +109,10 @@ public class GridStorageCache implements IStorageGrid {
     private long essentiaCellCount;
     private int ticksCount;
     private int networkBytesUpdateFrequency;
+    /**
+     * Set when stored contents or cells changed since the cell info was last counted.
+     */
+    private boolean cellInfoStale = true;
 
     private final ItemStackMap<Integer> itemCells = new ItemStackMap<>();
     private final ItemStackMap<Integer> fluidCells = new ItemStackMap<>();
@@ -124,19 +135,54 @@ public class GridStorageCache implements IStorageGrid {
 
     @Override
     public void onUpdateTick() {
+        this.deliverQueuedStackChanges();
+
         for (NetworkMonitor<?> monitor : this.monitors.values()) {
             monitor.onTick();
         }
 
-        // update every 1s by default
+        // update at most every 1s by default, and only after something changed
         if (this.ticksCount < this.networkBytesUpdateFrequency) {
             this.ticksCount++;
-        } else {
+        } else if (this.cellInfoStale) {
             this.ticksCount = 0;
+            this.cellInfoStale = false;
             this.updateBytesInfo();
         }
     }
 
+    void queueStackChange(final NetworkMonitor<?> monitor, final IAEStack<?> difference,
+            final BaseActionSource src) {
+        final QueuedStackChange queued = this.queuedStackChanges.get(difference);
+        if (queued == null) {
+            final QueuedStackChange change = new QueuedStackChange(monitor, difference.copy(), src);
+            this.queuedStackChanges.put(change.difference, change);
+        } else {
+            queued.difference.incStackSize(difference.getStackSize());
+            queued.src = src;
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void deliverQueuedStackChanges() {
+        if (this.queuedStackChanges.isEmpty()) {
+            return;
+        }
+
+        final List<QueuedStackChange> changes = new ArrayList<>(this.queuedStackChanges.values());
+        this.queuedStackChanges.clear();
+
+        for (final QueuedStackChange change : changes) {
+            if (change.difference.getStackSize() != 0) {
+                ((NetworkMonitor) change.monitor).notifyWatchers(change.difference, change.src, true);
+            }
+        }
+    }
+
+    void markCellInfoStale() {
+        this.cellInfoStale = true;
+    }
+
     @Override
     public void removeNode(final IGridNode node, final IGridHost machine) {
         if (machine instanceof ICellContainer cc) {
@@ -233,8 +279,13 @@ public class GridStorageCache implements IStorageGrid {
 
     @MENetworkEventSubscribe
     public void cellUpdate(final MENetworkCellArrayUpdate ev) {
-        for (IAEStackType<?> type : inventoryHandlers.keySet()) {
-            this.inventoryHandlers.put(type, null);
+        this.cellInfoStale = true;
+
+        for (Map.Entry<IAEStackType<?>, NetworkInventoryHandler<?>> entry : this.inventoryHandlers.entrySet()) {
+            if (entry.getValue() != null) {
+                entry.getValue().releaseRoutingIndex();
+            }
+            entry.setValue(null);
         }
 
         final LinkedList<ICellProvider> ll = new LinkedList<>();
@@ -280,6 +331,7 @@ public class GridStorageCache implements IStorageGrid {
                 handler.addNewStorage(h);
             }
         }
+        handler.buildRoutingIndex();
         this.inventoryHandlers.put(type, handler);
     }
 
@@ -334,6 +386,38 @@ public class GridStorageCache implements IStorageGrid {
         return this.monitors.get(type);
     }
 
+    @Override
+    public long getStoredCount(@NotNull IAEStackType<?> type) {
+        final NetworkMonitor<?> monitor = this.monitors.get(type);
+        return monitor == null ? 0 : monitor.getStoredCount();
+    }
+
+    @Override
+    public long getStoredTypes(@NotNull IAEStackType<?> type) {
+        final NetworkMonitor<?> monitor = this.monitors.get(type);
+        return monitor == null ? 0 : monitor.getStoredTypes();
+    }
+
+    @Override
+    public double getUsedBytes(@NotNull IAEStackType<?> type) {
+        if (type == ITEM_STACK_TYPE) {
+            return this.itemBytesUsed;
+        }
+        if (type == FLUID_STACK_TYPE) {
+            return this.fluidBytesUsed;
+        }
+        return 0;
+    }
+
+    /**
+     * @see NetworkMonitor#getStorageSnapshot()
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T extends IAEStack<T>> NetworkStorageSnapshot<T> getStorageSnapshot(@NotNull IAEStackType<T> type) {
+        return ((NetworkMonitor<T>) this.monitors.get(type)).getStorageSnapshot();
+    }
+
     public GenericInterestManager<ItemWatcher> getInterestManager() {
         return this.interestManager;
     }
@@ -342,6 +426,20 @@ public class GridStorageCache implements IStorageGrid {
         return this.myGrid;
     }
 
+    private static class QueuedStackChange {
+
+        final NetworkMonitor<?> monitor;
+        final IAEStack<?> difference;
+        BaseActionSource src;
+
+        QueuedStackChange(final NetworkMonitor<?> monitor, final IAEStack<?> difference,
+                final BaseActionSource src) {
+            this.monitor = monitor;
+            this.difference = difference;
+            this.src = src;
+        }
+    }
+
     private class CellChangeTrackerRecord {
 
         final IAEStackType<?> type;
@@ -373,8 +471,21 @@ public class GridStorageCache implements IStorageGrid {
         }
 
         public void applyChanges() {
-            for (final CellChangeTrackerRecord rec : this.data) {
-                rec.applyChanges();
+            if (this.data.isEmpty()) {
+                return;
+            }
+
+            for (final NetworkMonitor<?> monitor : GridStorageCache.this.monitors.values()) {
+                monitor.beginCellChanges();
+            }
+            try {
+                for (final CellChangeTrackerRecord rec : this.data) {
+                    rec.applyChanges();
+                }
+            } finally {
+                for (final NetworkMonitor<?> monitor : GridStorageCache.this.monitors.values()) {
+                    monitor.endCellChanges();
+                }
             }
         }
     }
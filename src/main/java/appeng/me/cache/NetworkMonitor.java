@@ -10,11 +10,13 @@
 
 package appeng.me.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -27,7 +29,6 @@ import javax.annotation.Nullable;
 import org.jetbrains.annotations.NotNull;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 
 import appeng.api.config.AccessRestriction;
 import appeng.api.config.Actionable;
@@ -43,8 +44,13 @@ import appeng.api.storage.StorageChannel;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
+import appeng.me.cache.helpers.NetworkStorageSnapshot;
+import appeng.me.cache.helpers.StorageTotals;
+import appeng.me.helpers.GenericInterestManager;
 import appeng.me.storage.ItemWatcher;
 import appeng.util.IterationCounter;
+import appeng.util.ReentrancyGuard;
 import appeng.util.item.LazyItemList;
 import appeng.util.item.NetworkItemList;
 import appeng.util.item.PrioritizedNetworkItemList;
@@ -52,7 +58,12 @@ import appeng.util.item.PrioritizedNetworkItemList;
 public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     @Nonnull
-    private static final Deque<NetworkMonitor<?>> GLOBAL_DEPTH = Lists.newLinkedList();
+    private static final ReentrancyGuard GLOBAL_DEPTH = new ReentrancyGuard();
+
+    /**
+     * Snapshots stop being published when nobody asked for one during this many ticks.
+     */
+    private static final int SNAPSHOT_IDLE_TICKS = 100;
 
     @Nonnull
     private final GridStorageCache myGridCache;
@@ -68,6 +79,18 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     private boolean sendEvent = false;
     private boolean hasChanged = false;
 
+    @Nullable
+    private volatile NetworkStorageSnapshot<T> storageSnapshot = null;
+    private volatile int snapshotIdleTicks = SNAPSHOT_IDLE_TICKS;
+    private boolean snapshotStale = true;
+    /**
+     * Kept apart from the snapshot, so that versions keep increasing after publishing stopped and started again.
+     */
+    private long snapshotVersion = 0;
+
+    private final StorageTotals<T> totals = new StorageTotals<>();
+    private boolean postingCellChanges = false;
+
     @Nonnegative
     private int localDepthSemaphore = 0;
 
@@ -76,7 +99,7 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     public NetworkMonitor(final GridStorageCache cache, final IAEStackType<T> type) {
         this.myGridCache = cache;
         this.stackType = type;
-        this.cachedList = type.createList();
+        this.cachedList = AEConfig.instance.compactNetworkItemList ? type.createCompactList() : type.createList();
         this.listeners = new HashMap<>();
     }
 
@@ -102,6 +125,9 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
         if (localDepthSemaphore == 0) {
             this.monitorDifference(request.copy(), leftover, true, src);
+        } else {
+            // nested changes are not posted
+            this.totals.invalidate();
         }
 
         return leftover;
@@ -163,16 +189,9 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     @Override
     public T injectItems(T input, final Actionable mode, final BaseActionSource src) {
-
-        for (Iterator<IStorageInterceptor> iterator = storageInterceptors.iterator(); iterator.hasNext();) {
-            final IStorageInterceptor isi = iterator.next();
-            if (isi.canAccept(input)) {
-                input = (T) isi.injectItems(input, mode, src);
-
-                if (mode == Actionable.MODULATE && isi.shouldRemoveInterceptor(input)) iterator.remove();
-
-                if (input == null) return null;
-            }
+        input = this.intercept(input, mode, src);
+        if (input == null) {
+            return null;
         }
 
         if (mode == Actionable.SIMULATE) {
@@ -185,11 +204,115 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
         if (localDepthSemaphore == 0) {
             this.monitorDifference(input.copy(), leftover, false, src);
+        } else {
+            // nested changes are not posted
+            this.totals.invalidate();
         }
 
         return leftover;
     }
 
+    /**
+     * Injects all stacks with a single pass through the network storage, and notifies the listeners of all changes at
+     * once.
+     */
+    @Override
+    public List<T> injectItems(final Collection<T> input, final Actionable mode, final BaseActionSource src) {
+        final List<T> leftovers = new ArrayList<>(input.size());
+        final List<T> toStore = new ArrayList<>(input.size());
+        for (final T stack : input) {
+            final T remaining = this.intercept(stack, mode, src);
+            leftovers.add(remaining);
+            if (remaining != null) {
+                toStore.add(remaining);
+            }
+        }
+
+        if (toStore.isEmpty()) {
+            return leftovers;
+        }
+
+        final List<T> stored = this.modifyBatch(toStore, mode, src, false);
+
+        // put the storage leftovers in place of the stacks that were not fully intercepted
+        int j = 0;
+        for (int i = 0; i < leftovers.size(); i++) {
+            if (leftovers.get(i) != null) {
+                leftovers.set(i, stored.get(j++));
+            }
+        }
+        return leftovers;
+    }
+
+    /**
+     * Extracts all requests with a single pass through the network storage, see {@link #injectItems(Collection,
+     * Actionable, BaseActionSource)}.
+     */
+    @Override
+    public List<T> extractItems(final Collection<T> requests, final Actionable mode, final BaseActionSource src) {
+        return this.modifyBatch(new ArrayList<>(requests), mode, src, true);
+    }
+
+    private List<T> modifyBatch(final List<T> stacks, final Actionable mode, final BaseActionSource src,
+            final boolean extraction) {
+        if (mode == Actionable.SIMULATE) {
+            return extraction ? this.getHandler().extractItems(stacks, mode, src)
+                    : this.getHandler().injectItems(stacks, mode, src);
+        }
+
+        final List<T> results;
+        localDepthSemaphore++;
+        try {
+            results = extraction ? this.getHandler().extractItems(stacks, mode, src)
+                    : this.getHandler().injectItems(stacks, mode, src);
+        } finally {
+            localDepthSemaphore--;
+        }
+
+        if (localDepthSemaphore == 0) {
+            // one change per stack type, no matter how often it appeared in the batch
+            final Map<T, T> changes = new LinkedHashMap<>();
+            for (int i = 0; i < stacks.size(); i++) {
+                final T diff = this.getDifference(stacks.get(i), results.get(i), extraction);
+                if (diff != null) {
+                    final T existing = changes.putIfAbsent(diff, diff);
+                    if (existing != null) {
+                        existing.incStackSize(diff.getStackSize());
+                    }
+                }
+            }
+            changes.values().removeIf(diff -> diff.getStackSize() == 0);
+
+            if (!changes.isEmpty()) {
+                this.postChangesToListeners(ImmutableList.copyOf(changes.values()), src);
+            }
+        } else {
+            // nested changes are not posted
+            this.totals.invalidate();
+        }
+
+        return results;
+    }
+
+    /**
+     * Offers the input to the storage interceptors before it reaches the network storage.
+     *
+     * @return what the interceptors left, or null if they took everything
+     */
+    private T intercept(T input, final Actionable mode, final BaseActionSource src) {
+        for (Iterator<IStorageInterceptor> iterator = storageInterceptors.iterator(); iterator.hasNext();) {
+            final IStorageInterceptor isi = iterator.next();
+            if (isi.canAccept(input)) {
+                input = (T) isi.injectItems(input, mode, src);
+
+                if (mode == Actionable.MODULATE && isi.shouldRemoveInterceptor(input)) iterator.remove();
+
+                if (input == null) return null;
+            }
+        }
+        return input;
+    }
+
     @Override
     public boolean isPrioritized(final T input) {
         return this.getHandler().isPrioritized(input);
@@ -231,6 +354,19 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
 
     private T monitorDifference(final IAEStack original, final T leftOvers, final boolean extraction,
             final BaseActionSource src) {
+        final T diff = this.getDifference(original, leftOvers, extraction);
+
+        if (diff != null) {
+            this.postChangesToListeners(ImmutableList.of(diff), src);
+        }
+
+        return leftOvers;
+    }
+
+    /**
+     * @return the change in storage caused by the operation, or null if nothing changed
+     */
+    private T getDifference(final IAEStack original, final T leftOvers, final boolean extraction) {
         final T diff = (T) original.copy();
 
         if (extraction) {
@@ -239,15 +375,12 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
             diff.decStackSize(leftOvers.getStackSize());
         }
 
-        if (diff.getStackSize() != 0) {
-            this.postChangesToListeners(ImmutableList.of(diff), src);
-        }
-
-        return leftOvers;
+        return diff.getStackSize() != 0 ? diff : null;
     }
 
     private void notifyListenersOfChange(final Iterable<IAEStack<?>> diff, final BaseActionSource src) {
         this.hasChanged = true;
+        this.snapshotStale = true;
         final Iterator<Entry<IMEMonitorHandlerReceiver, Object>> i = this.getListeners();
 
         while (i.hasNext()) {
@@ -266,14 +399,22 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
     }
 
     protected void postChange(final boolean add, final Iterable<IAEStack<?>> changes, final BaseActionSource src) {
-        if (localDepthSemaphore > 0 || GLOBAL_DEPTH.contains(this)) {
+        if (localDepthSemaphore > 0 || !GLOBAL_DEPTH.tryEnter(this)) {
+            // these changes are lost, count again when the totals are next read
+            this.totals.invalidate();
             return;
         }
 
-        GLOBAL_DEPTH.push(this);
         localDepthSemaphore++;
 
         this.sendEvent = true;
+        this.myGridCache.markCellInfoStale();
+
+        for (final IAEStack<?> changedItem : changes) {
+            if (changedItem != null && !this.postingCellChanges) {
+                this.totals.applyChange((T) changedItem, add ? changedItem.getStackSize() : -changedItem.getStackSize());
+            }
+        }
 
         this.notifyListenersOfChange(changes, src);
 
@@ -289,40 +430,81 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
                 difference.setStackSize(-changedItem.getStackSize());
             }
 
-            if (this.myGridCache.getInterestManager().containsKey(changedItem)) {
-                final Collection<ItemWatcher> list = this.myGridCache.getInterestManager().get(changedItem);
+            this.notifyWatchers(difference, src, false);
+        }
 
-                if (!list.isEmpty()) {
-                    IAEStack<T> fullStack = this.getHandler()
-                            .getAvailableItem((T) changedItem, IterationCounter.fetchNewId());
+        final boolean balanced = GLOBAL_DEPTH.exit(this);
+        localDepthSemaphore--;
 
-                    if (fullStack == null) {
-                        fullStack = changedItem.copy();
-                        fullStack.setStackSize(0);
-                    }
+        if (!balanced) {
+            throw new IllegalStateException("Invalid Access to Networked Storage API detected.");
+        }
+    }
 
-                    this.myGridCache.getInterestManager().enableTransactions();
+    /**
+     * Notifies the watchers of the changed stack.
+     *
+     * @param queued false to notify the hosts that need immediate notifications and queue the change for the others,
+     *               true to deliver a queued change to the others
+     */
+    void notifyWatchers(final T difference, final BaseActionSource src, final boolean queued) {
+        final GenericInterestManager<ItemWatcher> interestManager = this.myGridCache.getInterestManager();
+        if (!interestManager.containsKey(difference)) {
+            return;
+        }
 
-                    IItemList<T> itemList = new LazyItemList<>(this::getStorageList);
-                    for (final ItemWatcher iw : list) {
-                        iw.getHost().onStackChange(itemList, fullStack, difference, src, this.getChannel());
-                    }
+        final Collection<ItemWatcher> list = interestManager.get(difference);
+        if (list.isEmpty()) {
+            return;
+        }
 
-                    this.myGridCache.getInterestManager().disableTransactions();
-                }
+        final boolean coalesce = AEConfig.instance.coalesceStackWatchers;
+        IAEStack<T> fullStack = null;
+        IItemList<T> itemList = null;
+        boolean queue = false;
+
+        interestManager.enableTransactions();
+
+        for (final ItemWatcher iw : list) {
+            final boolean immediate = iw.getHost().needsImmediateStackChanges();
+            if (queued ? immediate : coalesce && !immediate) {
+                queue = true;
+                continue;
+            }
+
+            if (fullStack == null) {
+                fullStack = difference.copy();
+                fullStack.setStackSize(this.getTotals().getStoredCount(difference));
+                itemList = new LazyItemList<>(this::getStorageList);
             }
+            iw.getHost().onStackChange(itemList, fullStack, difference, src, this.getChannel());
         }
 
-        final NetworkMonitor<?> last = GLOBAL_DEPTH.pop();
-        localDepthSemaphore--;
+        interestManager.disableTransactions();
 
-        if (last != this) {
-            throw new IllegalStateException("Invalid Access to Networked Storage API detected.");
+        if (queue && !queued) {
+            this.myGridCache.queueStackChange(this, difference, src);
         }
     }
 
+    /**
+     * The contents of added or removed cells are already part of the network storage when they are posted, so the
+     * totals are counted again instead of applying them.
+     */
+    void beginCellChanges() {
+        this.postingCellChanges = true;
+        this.totals.invalidate();
+    }
+
+    void endCellChanges() {
+        this.postingCellChanges = false;
+        this.totals.invalidate();
+    }
+
     void forceUpdate() {
         this.hasChanged = true;
+        this.snapshotStale = true;
+        this.totals.invalidate();
 
         final Iterator<Entry<IMEMonitorHandlerReceiver, Object>> i = this.getListeners();
         while (i.hasNext()) {
@@ -337,11 +519,66 @@ public class NetworkMonitor<T extends IAEStack<T>> implements IMEMonitor<T> {
         }
     }
 
+    /**
+     * @return the sum of the sizes of all stored stacks
+     */
+    public long getStoredCount() {
+        return this.getTotals().getStoredCount();
+    }
+
+    /**
+     * @return the number of distinct stored stacks, not counting craftable-only entries
+     */
+    public long getStoredTypes() {
+        return this.getTotals().getStoredTypes();
+    }
+
+    private StorageTotals<T> getTotals() {
+        if (!this.totals.isValid()) {
+            this.totals.rebuild(this.getStorageList());
+        }
+        return this.totals;
+    }
+
     void onTick() {
         if (this.sendEvent) {
             this.sendEvent = false;
             this.myGridCache.getGrid().postEvent(new MENetworkStorageEvent(this, this.stackType));
         }
+
+        this.publishStorageSnapshot();
+    }
+
+    /**
+     * Returns the storage snapshot published at the end of the last grid tick. Safe to call from any thread, the
+     * returned snapshot never changes.
+     * <p>
+     * Snapshots are only published while they are being asked for, so the first call (or the first after a long pause)
+     * returns null and a snapshot becomes available on the next tick.
+     */
+    @Nullable
+    public NetworkStorageSnapshot<T> getStorageSnapshot() {
+        this.snapshotIdleTicks = 0;
+        return this.storageSnapshot;
+    }
+
+    private void publishStorageSnapshot() {
+        final int idleTicks = this.snapshotIdleTicks;
+        if (idleTicks >= SNAPSHOT_IDLE_TICKS) {
+            if (this.storageSnapshot != null) {
+                this.storageSnapshot = null;
+                this.snapshotStale = true;
+            }
+            return;
+        }
+        this.snapshotIdleTicks = idleTicks + 1;
+
+        final NetworkStorageSnapshot<T> previous = this.storageSnapshot;
+        if (this.snapshotStale || previous == null) {
+            this.snapshotStale = false;
+            this.storageSnapshot = NetworkStorageSnapshot
+                    .of(this.stackType, ++this.snapshotVersion, this.getStorageList(), previous);
+        }
     }
 
     public void addStorageInterceptor(IStorageInterceptor storageInterceptor) {
@@ -12,6 +12,9 @@ package appeng.me.cache;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import net.minecraftforge.common.util.ForgeDirection;
@@ -35,15 +38,23 @@ import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.core.features.AEFeature;
 import appeng.core.stats.Achievements;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
 import appeng.me.pathfinding.AdHocChannelUpdater;
 import appeng.me.pathfinding.ChannelFinalizer;
 import appeng.me.pathfinding.ControllerValidator;
+import appeng.me.pathfinding.IncrementalPathingCalculation;
 import appeng.me.pathfinding.PathingCalculation;
 import appeng.tile.networking.TileController;
 import appeng.util.Platform;
 
 public class PathGridCache implements IPathingGrid {
 
+    /**
+     * Batches with more node or connection changes than this always use a full {@link PathingCalculation}.
+     */
+    private static final int MAX_INCREMENTAL_CHANGES = 64;
+
     private final Set<TileController> controllers = new HashSet<>();
     private final Set<IGridNode> nodesNeedingChannels = new HashSet<>();
     private final Set<IGridNode> cannotCarryCompressedNodes = new HashSet<>();
@@ -57,6 +68,21 @@ public class PathGridCache implements IPathingGrid {
     private ControllerState controllerState = ControllerState.NO_CONTROLLER;
     private int lastChannels = 0;
 
+    /**
+     * Changes since the last channel assignment, used to try an {@link IncrementalPathingCalculation} first.
+     */
+    private final Set<GridNode> pendingAddedNodes = new LinkedHashSet<>();
+    private final Map<GridNode, Integer> pendingRemovedNodes = new LinkedHashMap<>();
+    private final Set<GridConnection> pendingAddedConnections = new HashSet<>();
+    private final Set<GridConnection> pendingRemovedConnections = new HashSet<>();
+    private boolean fullRepathRequired = true;
+    /**
+     * Nodes that require a channel but did not get one in the current assignment.
+     */
+    private int starvedNodes = 0;
+    private long fullPathingRuns = 0;
+    private long incrementalPathingRuns = 0;
+
     public PathGridCache(final IGrid g) {
         this.myGrid = g;
     }
@@ -70,6 +96,12 @@ public class PathGridCache implements IPathingGrid {
         if (this.updateNetwork) {
             this.updateNetwork = false;
 
+            if (!this.fullRepathRequired && this.tryIncrementalRepath()) {
+                this.clearPendingChanges();
+                return;
+            }
+            this.clearPendingChanges();
+
             // Preserve the illusion that the network is booting for a while before channel assignment completes.
             this.booting = true;
             this.myGrid.postEvent(new MENetworkBootingStatusChange(true));
@@ -103,6 +135,11 @@ public class PathGridCache implements IPathingGrid {
                 this.channelsByBlocks = calculation.getChannelsByBlocks();
             }
 
+            this.fullPathingRuns++;
+            if (AEConfig.instance.debugPathFinding) {
+                AELog.info("Full channel assignment finished with %d channels in use", this.channelsInUse);
+            }
+
             // check for achievements
             this.achievementPost();
 
@@ -113,7 +150,112 @@ public class PathGridCache implements IPathingGrid {
             this.myGrid.getPivot().beginVisit(new ChannelFinalizer());
             this.myGrid.postEvent(new MENetworkBootingStatusChange(this.booting));
 
+            this.starvedNodes = 0;
+            for (final IGridNode node : this.nodesNeedingChannels) {
+                if (node.usedChannels() == 0) {
+                    this.starvedNodes++;
+                }
+            }
+            // ad-hoc networks have no controller tree to update in place
+            this.fullRepathRequired = this.controllerState != ControllerState.CONTROLLER_ONLINE;
+        }
+    }
+
+    /**
+     * Updates the previous channel assignment in place if the pending changes only attach or detach leaf nodes.
+     *
+     * @return false if nothing was changed and a full calculation is needed
+     */
+    private boolean tryIncrementalRepath() {
+        if (this.controllerState != ControllerState.CONTROLLER_ONLINE || this.myGrid.isEmpty()) {
+            return false;
+        }
+
+        final int changes = this.pendingAddedNodes.size() + this.pendingRemovedNodes.size()
+                + this.pendingAddedConnections.size()
+                + this.pendingRemovedConnections.size();
+        if (changes > MAX_INCREMENTAL_CHANGES) {
+            return false;
+        }
+
+        final IncrementalPathingCalculation calculation = new IncrementalPathingCalculation(
+                this.myGrid,
+                this.pendingAddedConnections,
+                this.pendingRemovedConnections,
+                this.starvedNodes);
+
+        for (final Map.Entry<GridNode, Integer> removed : this.pendingRemovedNodes.entrySet()) {
+            if (!calculation.detachLeaf(removed.getKey(), removed.getValue())) {
+                return false;
+            }
+        }
+        for (final GridNode added : this.pendingAddedNodes) {
+            if (!calculation.attachLeaf(added, this.pendingAddedNodes)) {
+                return false;
+            }
+        }
+        if (!calculation.isComplete()) {
+            return false;
+        }
+
+        calculation.apply();
+        this.channelsInUse += calculation.getChannelsInUseDelta();
+        this.channelsByBlocks += calculation.getChannelsByBlocksDelta();
+        this.starvedNodes = calculation.getStarvedNodes();
+
+        this.achievementPost();
+        this.setChannelPowerUsage(this.channelsByBlocks / 128.0);
+
+        this.incrementalPathingRuns++;
+        if (AEConfig.instance.debugPathFinding) {
+            AELog.info(
+                    "Incremental channel assignment finished with %d channels in use (%d nodes, %d connections changed)",
+                    this.channelsInUse,
+                    this.pendingAddedNodes.size() + this.pendingRemovedNodes.size(),
+                    this.pendingAddedConnections.size() + this.pendingRemovedConnections.size());
+        }
+        return true;
+    }
+
+    private void clearPendingChanges() {
+        this.pendingAddedNodes.clear();
+        this.pendingRemovedNodes.clear();
+        this.pendingAddedConnections.clear();
+        this.pendingRemovedConnections.clear();
+    }
+
+    /**
+     * Called by a {@link GridConnection} of this grid after it was created, instead of {@link #repath()}.
+     */
+    public void connectionAdded(final GridConnection connection) {
+        this.pendingAddedConnections.add(connection);
+        this.updateNetwork = true;
+    }
+
+    /**
+     * Called by a {@link GridConnection} of this grid before it is destroyed, instead of {@link #repath()}.
+     */
+    public void connectionRemoved(final GridConnection connection) {
+        if (this.pendingAddedConnections.remove(connection)) {
+            this.fullRepathRequired = true;
+        } else {
+            this.pendingRemovedConnections.add(connection);
         }
+        this.updateNetwork = true;
+    }
+
+    /**
+     * @return The number of times channels were assigned by a full {@link PathingCalculation}.
+     */
+    public long getFullPathingRuns() {
+        return this.fullPathingRuns;
+    }
+
+    /**
+     * @return The number of times channels were assigned by an {@link IncrementalPathingCalculation}.
+     */
+    public long getIncrementalPathingRuns() {
+        return this.incrementalPathingRuns;
     }
 
     @Override
@@ -137,7 +279,13 @@ public class PathGridCache implements IPathingGrid {
             this.cannotCarryCompressedNodes.remove(gridNode);
         }
 
-        this.repath();
+        if (gridNode instanceof GridNode node && !this.pendingAddedNodes.remove(node)) {
+            // the grid resets the node's channels right after this
+            this.pendingRemovedNodes.put(node, node.usedChannels());
+        } else {
+            this.fullRepathRequired = true;
+        }
+        this.updateNetwork = true;
     }
 
     @Override
@@ -161,7 +309,12 @@ public class PathGridCache implements IPathingGrid {
             this.cannotCarryCompressedNodes.add(gridNode);
         }
 
-        this.repath();
+        if (gridNode instanceof GridNode node && !this.pendingRemovedNodes.containsKey(node)) {
+            this.pendingAddedNodes.add(node);
+        } else {
+            this.fullRepathRequired = true;
+        }
+        this.updateNetwork = true;
     }
 
     @Override
@@ -199,6 +352,7 @@ public class PathGridCache implements IPathingGrid {
         }
 
         if (old != this.controllerState) {
+            this.fullRepathRequired = true;
             this.myGrid.postEvent(new MENetworkControllerChange());
         }
     }
@@ -309,6 +463,7 @@ public class PathGridCache implements IPathingGrid {
     public void repath() {
         this.channelsByBlocks = 0;
         this.updateNetwork = true;
+        this.fullRepathRequired = true;
     }
 
     double getChannelPowerUsage() {
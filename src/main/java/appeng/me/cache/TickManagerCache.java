@@ -10,9 +10,6 @@
 
 package appeng.me.cache;
 
-import java.util.HashMap;
-import java.util.PriorityQueue;
-
 import net.minecraft.crash.CrashReport;
 import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.util.ReportedException;
@@ -29,15 +26,30 @@ import appeng.api.util.DimensionalCoord;
 import appeng.core.AEConfig;
 import appeng.core.AELog;
 import appeng.me.cache.helpers.TickTracker;
+import appeng.me.cache.helpers.TickWheel;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 
 public class TickManagerCache implements ITickManager {
 
     private final IGrid myGrid;
-    private final HashMap<IGridNode, TickTracker> alertable = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> sleeping = new HashMap<>();
-    private final HashMap<IGridNode, TickTracker> awake = new HashMap<>();
-    private final PriorityQueue<TickTracker> upcomingTicks = new PriorityQueue<>();
+    private final Reference2ObjectOpenHashMap<IGridNode, TickTracker> trackers = new Reference2ObjectOpenHashMap<>();
+    private final TickWheel upcomingTicks = new TickWheel();
     private long currentTick = 0;
+    /**
+     * True while the devices due on {@link #currentTick} are being ticked.
+     */
+    private boolean ticking = false;
+    private int awakeDevices = 0;
+    private int devicesTickedLastTick = 0;
+    private long devicesTicked = 0;
+    private long ticks = 0;
+    /**
+     * {@link System#nanoTime()} after which the remaining due devices are deferred to the next tick.
+     */
+    private long tickDeadline = Long.MAX_VALUE;
+    private int devicesDeferredLastTick = 0;
+    private long devicesDeferred = 0;
+    private long overrunTicks = 0;
 
     public TickManagerCache(final IGrid g) {
         this.myGrid = g;
@@ -48,11 +60,7 @@ public class TickManagerCache implements ITickManager {
     }
 
     public long getAvgNanoTime(final IGridNode node) {
-        TickTracker tt = this.awake.get(node);
-
-        if (tt == null) {
-            tt = this.sleeping.get(node);
-        }
+        final TickTracker tt = this.trackers.get(node);
 
         if (tt == null) {
             return -1;
@@ -61,57 +69,108 @@ public class TickManagerCache implements ITickManager {
         return tt.getAvgNanos();
     }
 
+    /**
+     * @return The number of devices that were ticked on the last grid tick.
+     */
+    public int getDevicesTickedLastTick() {
+        return this.devicesTickedLastTick;
+    }
+
+    /**
+     * @return The average number of devices ticked per grid tick since this grid was created.
+     */
+    public double getAverageDevicesTicked() {
+        return this.ticks == 0 ? 0 : (double) this.devicesTicked / this.ticks;
+    }
+
+    /**
+     * Limits the next {@link #onUpdateTick()} to the given {@link System#nanoTime()}. At least one due device is always
+     * ticked, the others are deferred to the next tick once the deadline passed.
+     */
+    public void setTickDeadline(final long tickDeadline) {
+        this.tickDeadline = tickDeadline;
+    }
+
+    /**
+     * @return The number of due devices that were deferred to the next tick on the last grid tick.
+     */
+    public int getDevicesDeferredLastTick() {
+        return this.devicesDeferredLastTick;
+    }
+
+    public long getDevicesDeferred() {
+        return this.devicesDeferred;
+    }
+
+    /**
+     * @return The number of grid ticks that ran out of budget and deferred devices.
+     */
+    public long getOverrunTicks() {
+        return this.overrunTicks;
+    }
+
+    public int getAwakeDevices() {
+        return this.awakeDevices;
+    }
+
+    public int getSleepingDevices() {
+        return this.trackers.size() - this.awakeDevices;
+    }
+
     @Override
     public void onUpdateTick() {
         TickTracker tt = null;
+        int ticked = 0;
+        int deferred = 0;
         try {
             this.currentTick++;
-            while (!this.upcomingTicks.isEmpty()) {
-                tt = this.upcomingTicks.peek();
+            this.ticking = true;
+            this.upcomingTicks.advance(this.currentTick);
+            while ((tt = this.upcomingTicks.poll(this.currentTick)) != null) {
                 final int diff = (int) (this.currentTick - tt.getLastTick());
-                if (diff >= tt.getCurrentRate()) {
-                    // remove tt..
-                    this.upcomingTicks.poll();
-                    long tickStartTime = 0;
-                    if (AEConfig.instance.debugLogTiming) tickStartTime = System.nanoTime();
-                    final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
-                    if (AEConfig.instance.debugLogTiming) {
-                        DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
-                        AELog.debug(
-                                "Timing: machine tick at (%d %d %d) took %d ns, new state is %s",
-                                c.x,
-                                c.y,
-                                c.z,
-                                System.nanoTime() - tickStartTime,
-                                mod.toString());
-                    }
-                    switch (mod) {
-                        case FASTER:
-                            tt.setRate(tt.getCurrentRate() - 2);
-                            break;
-                        case IDLE:
-                            tt.setRate(tt.getRequest().maxTickRate);
-                            break;
-                        case SAME:
-                            break;
-                        case SLEEP:
-                            this.sleepDevice(tt.getNode());
-                            break;
-                        case SLOWER:
-                            tt.setRate(tt.getCurrentRate() + 1);
-                            break;
-                        case URGENT:
-                            tt.setRate(0);
-                            break;
-                        default:
-                            break;
-                    }
+                long tickStartTime = 0;
+                if (AEConfig.instance.debugLogTiming) tickStartTime = System.nanoTime();
+                final TickRateModulation mod = tt.getGridTickable().tickingRequest(tt.getNode(), diff);
+                if (AEConfig.instance.debugLogTiming) {
+                    DimensionalCoord c = tt.getNode().getGridBlock().getLocation();
+                    AELog.debug(
+                            "Timing: machine tick at (%d %d %d) took %d ns, new state is %s",
+                            c.x,
+                            c.y,
+                            c.z,
+                            System.nanoTime() - tickStartTime,
+                            mod.toString());
+                }
+                switch (mod) {
+                    case FASTER:
+                        tt.setRate(tt.getCurrentRate() - 2);
+                        break;
+                    case IDLE:
+                        tt.setRate(tt.getRequest().maxTickRate);
+                        break;
+                    case SAME:
+                        break;
+                    case SLEEP:
+                        this.sleepDevice(tt.getNode());
+                        break;
+                    case SLOWER:
+                        tt.setRate(tt.getCurrentRate() + 1);
+                        break;
+                    case URGENT:
+                        tt.setRate(0);
+                        break;
+                    default:
+                        break;
+                }
 
-                    if (this.awake.containsKey(tt.getNode())) {
-                        this.addToQueue(tt);
-                    }
-                } else {
-                    return; // done!
+                ticked++;
+                if (tt.isAwake() && this.trackers.get(tt.getNode()) == tt) {
+                    this.addToQueue(tt);
+                }
+
+                if (this.tickDeadline != Long.MAX_VALUE && System.nanoTime() > this.tickDeadline) {
+                    deferred = this.upcomingTicks.defer(this.currentTick);
+                    break;
                 }
             }
         } catch (final Throwable t) {
@@ -120,20 +179,36 @@ public class TickManagerCache implements ITickManager {
                     .makeCategory(tt.getGridTickable().getClass().getSimpleName() + " being ticked.");
             tt.addEntityCrashInfo(crashreportcategory);
             throw new ReportedException(crashreport);
+        } finally {
+            this.ticking = false;
+            this.tickDeadline = Long.MAX_VALUE;
+            this.devicesTickedLastTick = ticked;
+            this.devicesTicked += ticked;
+            this.devicesDeferredLastTick = deferred;
+            this.devicesDeferred += deferred;
+            if (deferred > 0) {
+                this.overrunTicks++;
+            }
+            this.ticks++;
         }
     }
 
     private void addToQueue(final TickTracker tt) {
         tt.setLastTick(this.currentTick);
-        this.upcomingTicks.add(tt);
+        // a device is never ticked twice in the same tick, even if it asks for a rate of 0
+        this.upcomingTicks.schedule(tt, this.currentTick + Math.max(1, tt.getCurrentRate()), this.currentTick);
     }
 
     @Override
     public void removeNode(final IGridNode gridNode, final IGridHost machine) {
         if (machine instanceof IGridTickable) {
-            this.alertable.remove(gridNode);
-            this.upcomingTicks.remove(this.sleeping.remove(gridNode));
-            this.upcomingTicks.remove(this.awake.remove(gridNode));
+            final TickTracker tt = this.trackers.remove(gridNode);
+            if (tt != null) {
+                this.upcomingTicks.remove(tt);
+                if (tt.isAwake()) {
+                    this.awakeDevices--;
+                }
+            }
         }
     }
 
@@ -143,15 +218,16 @@ public class TickManagerCache implements ITickManager {
             final TickingRequest tr = ((IGridTickable) machine).getTickingRequest(gridNode);
             if (tr != null) {
                 final TickTracker tt = new TickTracker(tr, gridNode, (IGridTickable) machine, this.currentTick, this);
-
-                if (tr.canBeAlerted) {
-                    this.alertable.put(gridNode, tt);
+                final TickTracker old = this.trackers.put(gridNode, tt);
+                if (old != null) {
+                    this.upcomingTicks.remove(old);
+                    if (old.isAwake()) {
+                        this.awakeDevices--;
+                    }
                 }
 
-                if (tr.isSleeping) {
-                    this.sleeping.put(gridNode, tt);
-                } else {
-                    this.awake.put(gridNode, tt);
+                if (!tr.isSleeping) {
+                    this.setAwake(tt, true);
                     this.addToQueue(tt);
                 }
             }
@@ -169,35 +245,36 @@ public class TickManagerCache implements ITickManager {
 
     @Override
     public boolean alertDevice(final IGridNode node) {
-        final TickTracker tt = this.alertable.get(node);
-        if (tt == null) {
+        final TickTracker tt = this.trackers.get(node);
+        if (tt == null || !tt.getRequest().canBeAlerted) {
             return false;
         }
         // throw new RuntimeException(
         // "Invalid alerted device, this node is not marked as alertable, or part of this grid." );
 
         // set to awake, this is for sanity.
-        this.sleeping.remove(node);
-        this.awake.put(node, tt);
+        this.setAwake(tt, true);
 
         // configure sort.
         tt.setLastTick(tt.getLastTick() - tt.getRequest().maxTickRate);
         tt.setCurrentRate(tt.getRequest().minTickRate);
 
-        // prevent dupes and tick build up.
-        this.upcomingTicks.remove(tt);
-        this.upcomingTicks.add(tt);
+        // prevent dupes and tick build up, an alert during the tick is handled within the same tick.
+        final long earliestTick = this.ticking ? this.currentTick : this.currentTick + 1;
+        this.upcomingTicks.schedule(
+                tt,
+                Math.max(earliestTick, tt.getLastTick() + tt.getCurrentRate()),
+                this.currentTick);
 
         return true;
     }
 
     @Override
     public boolean sleepDevice(final IGridNode node) {
-        if (this.awake.containsKey(node)) {
-            final TickTracker gt = this.awake.get(node);
-            this.awake.remove(node);
-            this.sleeping.put(node, gt);
-            this.upcomingTicks.remove(gt);
+        final TickTracker tt = this.trackers.get(node);
+        if (tt != null && tt.isAwake()) {
+            this.setAwake(tt, false);
+            this.upcomingTicks.remove(tt);
 
             return true;
         }
@@ -207,15 +284,21 @@ public class TickManagerCache implements ITickManager {
 
     @Override
     public boolean wakeDevice(final IGridNode node) {
-        if (this.sleeping.containsKey(node)) {
-            final TickTracker gt = this.sleeping.get(node);
-            this.sleeping.remove(node);
-            this.awake.put(node, gt);
-            this.addToQueue(gt);
+        final TickTracker tt = this.trackers.get(node);
+        if (tt != null && !tt.isAwake()) {
+            this.setAwake(tt, true);
+            this.addToQueue(tt);
 
             return true;
         }
 
         return false;
     }
+
+    private void setAwake(final TickTracker tt, final boolean awake) {
+        if (tt.isAwake() != awake) {
+            tt.setAwake(awake);
+            this.awakeDevices += awake ? 1 : -1;
+        }
+    }
 }
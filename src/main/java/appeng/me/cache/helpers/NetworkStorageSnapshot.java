@@ -0,0 +1,112 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+import java.util.Iterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableMap;
+
+import appeng.api.storage.data.IAEStack;
+import appeng.api.storage.data.IAEStackType;
+import appeng.api.storage.data.IItemList;
+
+/**
+ * An immutable, versioned copy of a network's storage list for one stack type. Instances are published by
+ * {@link appeng.me.cache.NetworkMonitor} on the grid tick and can be read from any thread without locking.
+ * <p>
+ * The stacks handed out by {@link #iterator()} are shared between readers and must not be modified, copy them first.
+ */
+public final class NetworkStorageSnapshot<T extends IAEStack<T>> implements Iterable<T> {
+
+    private final IAEStackType<T> stackType;
+    private final long version;
+    private final ImmutableMap<T, T> stacks;
+
+    private NetworkStorageSnapshot(final IAEStackType<T> stackType, final long version,
+            final ImmutableMap<T, T> stacks) {
+        this.stackType = stackType;
+        this.version = version;
+        this.stacks = stacks;
+    }
+
+    /**
+     * Copies the meaningful stacks of the given list. Stacks that did not change since the previous snapshot are shared
+     * with it instead of being copied again.
+     */
+    public static <T extends IAEStack<T>> NetworkStorageSnapshot<T> of(@Nonnull final IAEStackType<T> stackType,
+            final long version, @Nonnull final IItemList<T> source, @Nullable final NetworkStorageSnapshot<T> previous) {
+        final ImmutableMap.Builder<T, T> builder = ImmutableMap.builder();
+        for (final T stack : source) {
+            T frozen = previous != null ? previous.stacks.get(stack) : null;
+            if (frozen == null || !isSameAmount(frozen, stack)) {
+                frozen = stack.copy();
+            }
+            builder.put(frozen, frozen);
+        }
+        return new NetworkStorageSnapshot<>(stackType, version, builder.build());
+    }
+
+    private static boolean isSameAmount(final IAEStack<?> a, final IAEStack<?> b) {
+        return a.getStackSize() == b.getStackSize() && a.getCountRequestable() == b.getCountRequestable()
+                && a.isCraftable() == b.isCraftable();
+    }
+
+    public IAEStackType<T> getStackType() {
+        return this.stackType;
+    }
+
+    /**
+     * @return A number that increases every time the monitor publishes a new snapshot.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    public int size() {
+        return this.stacks.size();
+    }
+
+    public boolean isEmpty() {
+        return this.stacks.isEmpty();
+    }
+
+    /**
+     * @return A copy of the stored stack matching the given one, or null if it is not stored.
+     */
+    @Nullable
+    public T findPrecise(@Nonnull final T stack) {
+        final T found = this.stacks.get(stack);
+        return found != null ? found.copy() : null;
+    }
+
+    public long getStackSize(@Nonnull final T stack) {
+        final T found = this.stacks.get(stack);
+        return found != null ? found.getStackSize() : 0;
+    }
+
+    /**
+     * Fills the given list with copies of every stack in this snapshot.
+     */
+    public IItemList<T> getAvailableItems(@Nonnull final IItemList<T> out) {
+        for (final T stack : this.stacks.values()) {
+            out.add(stack);
+        }
+        return out;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this.stacks.values().iterator();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+import javax.annotation.Nonnull;
+
+import appeng.api.storage.data.IAEStack;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+
+/**
+ * Running totals of a network's storage for one stack type, and the stored amount of each stack type, kept up to date
+ * from the changes posted to {@link appeng.me.cache.NetworkMonitor}. The totals are rebuilt from the storage list after
+ * they were invalidated.
+ */
+public final class StorageTotals<T extends IAEStack<T>> {
+
+    private final Object2LongOpenHashMap<T> counts = new Object2LongOpenHashMap<>();
+    private long storedCount = 0;
+    private boolean valid = false;
+
+    public boolean isValid() {
+        return this.valid;
+    }
+
+    public void invalidate() {
+        this.valid = false;
+        this.counts.clear();
+        this.storedCount = 0;
+    }
+
+    public void rebuild(@Nonnull final Iterable<T> storage) {
+        this.counts.clear();
+        this.storedCount = 0;
+        this.valid = true;
+
+        for (final T stack : storage) {
+            this.applyChange(stack, stack.getStackSize());
+        }
+    }
+
+    /**
+     * Adds a stored amount change, does nothing while the totals are invalid.
+     */
+    public void applyChange(@Nonnull final T stack, final long delta) {
+        if (!this.valid || delta == 0) {
+            return;
+        }
+
+        final long old = this.counts.getLong(stack);
+        long now = old + delta;
+        if (delta > 0 && now < old) {
+            now = Long.MAX_VALUE;
+        }
+
+        if (now <= 0) {
+            now = 0;
+            if (old > 0) {
+                this.counts.removeLong(stack);
+            }
+        } else if (old == 0) {
+            this.counts.put(stack.copy(), now);
+        } else {
+            this.counts.put(stack, now);
+        }
+
+        this.storedCount += now - old;
+        if (this.storedCount < 0) {
+            this.storedCount = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return the stored amount of the given stack type, 0 if none is stored
+     */
+    public long getStoredCount(@Nonnull final T stack) {
+        return this.counts.getLong(stack);
+    }
+
+    public long getStoredCount() {
+        return this.storedCount;
+    }
+
+    public long getStoredTypes() {
+        return this.counts.size();
+    }
+}
@@ -10,8 +10,6 @@
 
 package appeng.me.cache.helpers;
 
-import javax.annotation.Nonnull;
-
 import net.minecraft.crash.CrashReportCategory;
 
 import appeng.api.networking.IGridNode;
@@ -21,7 +19,7 @@ import appeng.api.util.DimensionalCoord;
 import appeng.me.cache.TickManagerCache;
 import appeng.parts.AEBasePart;
 
-public class TickTracker implements Comparable<TickTracker> {
+public class TickTracker {
 
     private final TickingRequest request;
     private final IGridTickable gt;
@@ -32,6 +30,15 @@ public class TickTracker implements Comparable<TickTracker> {
 
     private long lastTick;
     private int currentRate;
+    private boolean awake;
+
+    /**
+     * Scheduling state owned by the {@link TickWheel}.
+     */
+    long dueTick;
+    int slot = -1;
+    TickTracker prev;
+    TickTracker next;
 
     public TickTracker(final TickingRequest req, final IGridNode node, final IGridTickable gt, final long currentTick,
             final TickManagerCache tickManagerCache) {
@@ -59,13 +66,6 @@ public class TickTracker implements Comparable<TickTracker> {
         }
     }
 
-    @Override
-    public int compareTo(@Nonnull final TickTracker t) {
-        final int nextTick = (int) ((this.getLastTick() - this.host.getCurrentTick()) + this.getCurrentRate());
-        final int ts_nextTick = (int) ((t.getLastTick() - this.host.getCurrentTick()) + t.getCurrentRate());
-        return nextTick - ts_nextTick;
-    }
-
     public void addEntityCrashInfo(final CrashReportCategory crashreportcategory) {
         if (this.getGridTickable() instanceof AEBasePart part) {
             part.addEntityCrashInfo(crashreportcategory);
@@ -100,6 +100,14 @@ public class TickTracker implements Comparable<TickTracker> {
         this.lastTick = lastTick;
     }
 
+    public boolean isAwake() {
+        return this.awake;
+    }
+
+    public void setAwake(final boolean awake) {
+        this.awake = awake;
+    }
+
     public IGridNode getNode() {
         return this.node;
     }
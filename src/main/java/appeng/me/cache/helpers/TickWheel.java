@@ -0,0 +1,172 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.cache.helpers;
+
+import javax.annotation.Nullable;
+
+/**
+ * A two level timing wheel of {@link TickTracker}s, keyed by the tick they are due on.
+ * <p>
+ * Trackers due within the next {@link #SLOTS} ticks are kept in the slot of their due tick, later ones in a single
+ * overflow list that is cascaded into the wheel once every {@link #SLOTS} ticks. Every slot is an intrusive doubly linked
+ * list, so scheduling, rescheduling and removing a tracker never allocates and takes constant time.
+ */
+public final class TickWheel {
+
+    private static final int SLOTS = 256;
+    private static final int MASK = SLOTS - 1;
+    /**
+     * Slot index of the overflow list.
+     */
+    private static final int OVERFLOW = SLOTS;
+
+    private final TickTracker[] heads = new TickTracker[SLOTS + 1];
+    private final TickTracker[] tails = new TickTracker[SLOTS + 1];
+    private int size = 0;
+
+    /**
+     * Schedules the tracker for the given tick, removing it from its previous slot first.
+     *
+     * @param dueTick     tick the tracker should be returned by {@link #poll(long)}, at least {@code currentTick}
+     * @param currentTick the tick that is being processed, or was processed last
+     */
+    public void schedule(final TickTracker tt, final long dueTick, final long currentTick) {
+        this.remove(tt);
+
+        tt.dueTick = dueTick;
+        this.link(tt, dueTick - currentTick < SLOTS ? (int) (dueTick & MASK) : OVERFLOW);
+    }
+
+    /**
+     * @return false if the tracker was not scheduled
+     */
+    public boolean remove(final TickTracker tt) {
+        if (tt.slot < 0) {
+            return false;
+        }
+
+        final int slot = tt.slot;
+        if (tt.prev == null) {
+            this.heads[slot] = tt.next;
+        } else {
+            tt.prev.next = tt.next;
+        }
+
+        if (tt.next == null) {
+            this.tails[slot] = tt.prev;
+        } else {
+            tt.next.prev = tt.prev;
+        }
+
+        tt.prev = null;
+        tt.next = null;
+        tt.slot = -1;
+        this.size--;
+        return true;
+    }
+
+    public boolean isScheduled(final TickTracker tt) {
+        return tt.slot >= 0;
+    }
+
+    /**
+     * Must be called once at the start of every tick, before {@link #poll(long)}.
+     */
+    public void advance(final long currentTick) {
+        if ((currentTick & MASK) == 0) {
+            this.cascade(currentTick);
+        }
+    }
+
+    /**
+     * Removes and returns the next tracker due on the given tick. Trackers scheduled for the same tick while it is being
+     * polled are returned as well.
+     *
+     * @return null once every tracker due on this tick was returned
+     */
+    @Nullable
+    public TickTracker poll(final long currentTick) {
+        final TickTracker tt = this.heads[(int) (currentTick & MASK)];
+        if (tt != null) {
+            this.remove(tt);
+        }
+        return tt;
+    }
+
+    /**
+     * Moves every tracker still due on the given tick to the next one, in front of the trackers already due then, so
+     * that deferred trackers are not starved by the ones scheduled after them.
+     *
+     * @return The number of trackers that were moved
+     */
+    public int defer(final long currentTick) {
+        final int slot = (int) (currentTick & MASK);
+        final TickTracker first = this.heads[slot];
+        if (first == null) {
+            return 0;
+        }
+
+        final int nextSlot = (int) ((currentTick + 1) & MASK);
+        final TickTracker last = this.tails[slot];
+        int deferred = 0;
+        for (TickTracker tt = first; tt != null; tt = tt.next) {
+            tt.dueTick = currentTick + 1;
+            tt.slot = nextSlot;
+            deferred++;
+        }
+
+        // splice the whole list in front of the next slot
+        last.next = this.heads[nextSlot];
+        if (last.next == null) {
+            this.tails[nextSlot] = last;
+        } else {
+            last.next.prev = last;
+        }
+        this.heads[nextSlot] = first;
+        this.heads[slot] = null;
+        this.tails[slot] = null;
+        return deferred;
+    }
+
+    /**
+     * Moves every overflowing tracker due within the next {@link #SLOTS} ticks into the wheel.
+     */
+    private void cascade(final long currentTick) {
+        TickTracker tt = this.heads[OVERFLOW];
+        while (tt != null) {
+            final TickTracker next = tt.next;
+            if (tt.dueTick - currentTick < SLOTS) {
+                this.remove(tt);
+                this.link(tt, (int) (tt.dueTick & MASK));
+            }
+            tt = next;
+        }
+    }
+
+    private void link(final TickTracker tt, final int slot) {
+        tt.slot = slot;
+        tt.next = null;
+        tt.prev = this.tails[slot];
+
+        if (tt.prev == null) {
+            this.heads[slot] = tt;
+        } else {
+            tt.prev.next = tt;
+        }
+
+        this.tails[slot] = tt;
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+}
@@ -33,6 +33,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.IntConsumer;
@@ -138,6 +139,10 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             .comparing(ICraftingPatternDetails::getPriority).thenComparing(ICraftingPatternDetails::hashCode);
     private final Map<ICraftingPatternDetails, TaskProgress> tasks = new TreeMap<>(priorityComparator);
     private final Map<ICraftingPatternDetails, TaskProgress> workableTasks = new TreeMap<>(priorityComparator);
+    // tasks that are not known to lack ingredients, the others wait in starvedTasks until one of their inputs arrives
+    private final Map<ICraftingPatternDetails, TaskProgress> readyTasks = new TreeMap<>(priorityComparator);
+    private final Set<ICraftingPatternDetails> starvedTasks = new HashSet<>();
+    private final Map<Object, Set<ICraftingPatternDetails>> starvedByInput = new HashMap<>();
     private final HashSet<ICraftingMedium> knownBusyMediums = new HashSet<>();
     // INSTANCE sate
     private final LinkedList<TileCraftingTile> tiles = new LinkedList<>();
@@ -422,6 +427,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
                     // 2000
                     this.inventory.injectItems(what, type);
+                    this.wakeStarvedTasks(what);
                     return null;
                 }
 
@@ -454,6 +460,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 }
 
                 this.inventory.injectItems(insert, type);
+                this.wakeStarvedTasks(insert);
                 this.markDirty();
 
                 return what;
@@ -638,6 +645,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         this.isComplete = true;
         this.myLastLink = null;
         this.tasks.clear();
+        this.resetReadyTasks();
         this.providers.clear();
         final ImmutableSet<IAEStack<?>> items = ImmutableSet.copyOf(this.waitingFor);
 
@@ -693,7 +701,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
         // Shallow copy tasks so we may remove them after visiting
         this.workableTasks.clear();
-        this.workableTasks.putAll(this.tasks);
+        this.workableTasks.putAll(this.readyTasks);
         this.knownBusyMediums.clear();
         if (this.remainingOperations > 0) {
             do {
@@ -725,6 +733,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             if (craftingEntry.getValue().value <= 0) {
                 final ICraftingPatternDetails ceKey = craftingEntry.getKey();
                 this.tasks.remove(ceKey);
+                this.readyTasks.remove(ceKey);
                 parallelismProvider.remove(ceKey);
                 reasonProvider.remove(ceKey);
                 craftingTaskIterator.remove();
@@ -735,6 +744,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             ScheduledReason sr = null;
             if (!this.canCraft(details, details.getCondensedAEInputs())) {
                 craftingTaskIterator.remove(); // No need to revisit this task on next executeCrafting this tick
+                this.starveTask(details);
                 reasonProvider.put(details, ScheduledReason.NOT_ENOUGH_INGREDIENTS);
                 continue;
             }
@@ -746,7 +756,10 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             List<ICraftingMedium> mediumListCheck = null;
 
             if (mediumsList.size() > 1) {
-                mediumListCheck = parallelismProvider.getOrDefault(details, new ArrayList<>(mediumsList));
+                mediumListCheck = parallelismProvider.get(details);
+                if (mediumListCheck == null) {
+                    mediumListCheck = new ArrayList<>(mediumsList);
+                }
             }
 
             doWhileCraftingLoop: do {
@@ -849,6 +862,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
 
                             if (craftingEntry.getValue().value <= 0) {
                                 this.tasks.remove(details);
+                                this.readyTasks.remove(details);
                                 parallelismProvider.remove(details);
                                 reasonProvider.remove(details);
                                 craftingTaskIterator.remove();
@@ -942,11 +956,60 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             final IAEStack<?> aes = ic.getAEStackInSlot(x);
             if (aes != null) {
                 this.inventory.injectItems(aes, Actionable.MODULATE);
+                this.wakeStarvedTasks(aes);
+            }
+        }
+    }
+
+    /**
+     * Parks a task that lacks ingredients until one of its inputs is added to the cpu inventory. Patterns that can
+     * substitute accept ore dictionary equivalents of other items, so they are never parked.
+     */
+    private void starveTask(final ICraftingPatternDetails details) {
+        if (details.canSubstitute()) {
+            return;
+        }
+        if (this.readyTasks.remove(details) == null || !this.starvedTasks.add(details)) {
+            return;
+        }
+
+        for (final IAEStack<?> input : details.getCondensedAEInputs()) {
+            this.starvedByInput.computeIfAbsent(inputKey(input), k -> new HashSet<>()).add(details);
+        }
+    }
+
+    private void wakeStarvedTasks(final IAEStack<?> arrived) {
+        if (this.starvedTasks.isEmpty()) {
+            return;
+        }
+
+        final Set<ICraftingPatternDetails> waiting = this.starvedByInput.remove(inputKey(arrived));
+        if (waiting == null) {
+            return;
+        }
+
+        for (final ICraftingPatternDetails details : waiting) {
+            final TaskProgress progress = this.tasks.get(details);
+            if (this.starvedTasks.remove(details) && progress != null) {
+                this.readyTasks.put(details, progress);
             }
         }
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void resetReadyTasks() {
+        this.readyTasks.clear();
+        this.readyTasks.putAll(this.tasks);
+        this.starvedTasks.clear();
+        this.starvedByInput.clear();
+    }
+
+    /**
+     * Items are keyed by item, so that a stack with other damage or tags wakes the patterns waiting for that item too.
+     */
+    private static Object inputKey(final IAEStack<?> stack) {
+        return stack instanceof IAEItemStack ais ? ais.getItem() : stack;
+    }
+
     private void storeItems() {
         final IGrid g = this.getGrid();
         if (g == null) {
@@ -959,17 +1022,27 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             IMEMonitor monitor = sg.getMEMonitor(inventory.getKey());
             assert monitor != null;
 
+            final List<IAEStack<?>> toStore = new ArrayList<>();
             for (IAEStack<?> is : inventory.getValue()) {
                 is = this.inventory.extractItems(is.copy(), Actionable.MODULATE);
 
                 if (is != null) {
                     this.postChange(is, this.machineSrc);
-                    is = monitor.injectItems(is, Actionable.MODULATE, this.machineSrc);
-
+                    toStore.add(is);
                 }
+            }
+
+            if (toStore.isEmpty()) {
+                continue;
+            }
 
+            // the monitor is raw, every stack in toStore has the type it was looked up with
+            @SuppressWarnings("unchecked")
+            final List<IAEStack<?>> leftovers = monitor.injectItems(toStore, Actionable.MODULATE, this.machineSrc);
+            for (final IAEStack<?> is : leftovers) {
                 if (is != null) {
                     this.inventory.injectItems(is, Actionable.MODULATE);
+                    this.wakeStarvedTasks(is);
                 }
             }
         }
@@ -1075,6 +1148,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 this.finalOutput.reset();
                 this.waitingForMissing.resetStatus();
                 this.tasks.clear();
+                this.resetReadyTasks();
                 this.providers.clear();
                 this.inventory.resetStatus();
             }
@@ -1084,6 +1158,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             this.finalOutput.reset();
             this.waitingForMissing.resetStatus();
             this.tasks.clear();
+            this.resetReadyTasks();
             this.providers.clear();
             this.inventory.resetStatus();
         }
@@ -1170,12 +1245,14 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 waitingForMissing = backupWaitingForMissing;
                 tasks.clear();
                 tasks.putAll(tasksBackup);
+                this.resetReadyTasks();
             }
         } catch (final CraftBranchFailure e) {
             inventory = backupInventory;
             waitingForMissing = backupWaitingForMissing;
             tasks.clear();
             tasks.putAll(tasksBackup);
+            this.resetReadyTasks();
             handleCraftBranchFailure(e, src);
         }
 
@@ -1186,6 +1263,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
         this.tasks.entrySet().removeIf(
                 iCraftingPatternDetailsTaskProgressEntry -> iCraftingPatternDetailsTaskProgressEntry.getValue().value
                         <= 0);
+        this.readyTasks.keySet().retainAll(this.tasks.keySet());
         return !this.tasks.isEmpty();
     }
 
@@ -1345,6 +1423,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
     public void addStorage(final IAEStack<?> extractItems) {
         extractItems.setCraftable(false);
         this.inventory.injectItems(extractItems, Actionable.MODULATE);
+        this.wakeStarvedTasks(extractItems);
     }
 
     public void addEmitable(final IAEStack<?> i) {
@@ -1358,6 +1437,9 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
             this.tasks.put(details, i = new TaskProgress());
         }
 
+        // new work may come with the ingredients it needs
+        this.starvedTasks.remove(details);
+        this.readyTasks.put(details, i);
         i.value += crafts;
     }
 
@@ -1524,6 +1606,7 @@ public final class CraftingCPUCluster implements IAECluster, ICraftingCPU {
                 }
             }
         }
+        this.resetReadyTasks();
 
         this.finalOutput.readFromNBT((NBTTagCompound) data.getTag("finalOutput"));
         this.waitingFor = readAEStackListNBT((NBTTagList) data.getTag("waitingFor"), true);
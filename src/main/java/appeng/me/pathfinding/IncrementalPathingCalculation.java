@@ -0,0 +1,311 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import appeng.api.networking.GridFlags;
+import appeng.api.networking.IGrid;
+import appeng.api.networking.events.MENetworkBootingStatusChange;
+import appeng.me.GridConnection;
+import appeng.me.GridNode;
+import appeng.tile.networking.TileController;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+
+/**
+ * Updates the channel assignment of a controller network in place when the only changes since the last
+ * {@link PathingCalculation} are leaf nodes being attached to or detached from the existing controller tree, which is
+ * what happens when a cable end, a part or a machine is placed or broken.
+ * <p>
+ * The previous assignment is kept: attached nodes get a channel if every node on their path to the controller still
+ * has room for one, detached nodes give theirs back. Anything else (new loops, multiblocks, compressed channels,
+ * detaching a channel while other devices are waiting for one, ...) is rejected so that the caller falls back to a full
+ * {@link PathingCalculation}.
+ * <p>
+ * All changes are validated by {@link #attachLeaf} and {@link #detachLeaf} before {@link #apply()} touches the grid.
+ */
+public class IncrementalPathingCalculation {
+
+    private final IGrid grid;
+    private final Set<GridConnection> addedConnections;
+    private final Set<GridConnection> removedConnections;
+    /**
+     * Nodes that are part of the controller tree once the validated changes are applied.
+     */
+    private final Set<GridNode> attachedNodes = new HashSet<>();
+    private final List<Attach> attaches = new ArrayList<>();
+    private final List<Detach> detaches = new ArrayList<>();
+    /**
+     * Channel count changes of path items not yet written to them, added to their last finalized count while this
+     * calculation is applied.
+     */
+    private final Reference2IntOpenHashMap<IPathItem> channelBottlenecks = new Reference2IntOpenHashMap<>();
+    private final Set<IPathItem> touched = new LinkedHashSet<>();
+    private int starvedNodes;
+    private int channelsInUseDelta = 0;
+    private int channelsByBlocksDelta = 0;
+
+    /**
+     * @param starvedNodes The number of nodes that require a channel but did not get one in the current assignment.
+     */
+    public IncrementalPathingCalculation(IGrid grid, Collection<GridConnection> addedConnections,
+            Collection<GridConnection> removedConnections, int starvedNodes) {
+        this.grid = grid;
+        this.addedConnections = new HashSet<>(addedConnections);
+        this.removedConnections = new HashSet<>(removedConnections);
+        this.starvedNodes = starvedNodes;
+    }
+
+    /**
+     * Validates that the given node, which was removed from the grid, was a leaf of the controller tree.
+     *
+     * @param usedChannels The channels the node was using when it got removed.
+     * @return false if the change needs a full calculation
+     */
+    public boolean detachLeaf(GridNode node, int usedChannels) {
+        if (!node.getConnections().isEmpty() || !isPlainDevice(node)) {
+            return false;
+        }
+
+        GridConnection removed = null;
+        for (GridConnection connection : this.removedConnections) {
+            if (connection.a() == node || connection.b() == node) {
+                if (removed != null) {
+                    return false;
+                }
+                removed = connection;
+            }
+        }
+        // the connection has to point towards the controller, i.e. the node was below it
+        if (removed == null || removed.b() != node) {
+            return false;
+        }
+
+        final GridNode parent = removed.a();
+        if (parent.getGrid() != this.grid || parent.getConnections().isEmpty()) {
+            return false;
+        }
+
+        final List<IPathItem> path = new ArrayList<>();
+        if (!collectPathToController(parent, path)) {
+            return false;
+        }
+
+        if (usedChannels > 0 && this.starvedNodes > 0) {
+            // a full calculation might hand the freed channel to a device that is waiting for one
+            return false;
+        }
+
+        this.removedConnections.remove(removed);
+        this.detaches.add(new Detach(node, usedChannels, path));
+        return true;
+    }
+
+    /**
+     * Validates that the given node, which was added to the grid, hangs off the controller tree by a single new
+     * connection.
+     *
+     * @param pendingNodes Nodes added to the grid in the same batch, which can only be used as parent once they have
+     *                     been attached themselves.
+     * @return false if the change needs a full calculation
+     */
+    public boolean attachLeaf(GridNode node, Set<GridNode> pendingNodes) {
+        if (node.getGrid() != this.grid || node.getConnections().size() != 1 || !isPlainDevice(node)) {
+            return false;
+        }
+
+        final GridConnection connection = (GridConnection) node.getConnections().iterator().next();
+        if (!this.addedConnections.remove(connection)) {
+            return false;
+        }
+
+        final GridNode parent = (GridNode) connection.getOtherSide(node);
+        if (pendingNodes.contains(parent) && !this.attachedNodes.contains(parent)) {
+            return false;
+        }
+        if (!isController(parent) && !this.attachedNodes.contains(parent)
+                && !collectPathToController(parent, new ArrayList<>())) {
+            return false;
+        }
+
+        this.attachedNodes.add(node);
+        this.attaches.add(new Attach(node, connection, parent));
+        return true;
+    }
+
+    /**
+     * @return Whether every connection change of the batch was explained by an attached or detached leaf.
+     */
+    public boolean isComplete() {
+        return this.addedConnections.isEmpty() && this.removedConnections.isEmpty();
+    }
+
+    /**
+     * Writes the new channel assignment to the grid and notifies the affected nodes.
+     */
+    public void apply() {
+        for (Detach detach : this.detaches) {
+            if (detach.node.hasFlag(GridFlags.REQUIRE_CHANNEL) && detach.usedChannels == 0) {
+                this.starvedNodes--;
+            }
+            if (detach.usedChannels > 0) {
+                for (IPathItem item : detach.path) {
+                    this.channelBottlenecks.addTo(item, -detach.usedChannels);
+                    this.touched.add(item);
+                }
+                this.channelsInUseDelta -= detach.usedChannels;
+                // the path plus the node and its connection that are gone
+                this.channelsByBlocksDelta -= detach.usedChannels * (detach.path.size() + 2);
+            }
+        }
+
+        for (Attach attach : this.attaches) {
+            attach.connection.setControllerRoute(attach.parent);
+            attach.node.setControllerRoute(attach.connection);
+            this.touched.add(attach.node);
+            this.touched.add(attach.connection);
+
+            if (attach.node.hasFlag(GridFlags.REQUIRE_CHANNEL)) {
+                if (tryUseChannel(attach.node)) {
+                    this.channelsInUseDelta++;
+                } else {
+                    this.starvedNodes++;
+                }
+            }
+        }
+
+        for (IPathItem item : this.touched) {
+            item.incrementChannelCount(this.channelBottlenecks.getInt(item));
+            item.finalizeChannels();
+        }
+
+        // attached nodes missed the booting cycle of a full calculation
+        final MENetworkBootingStatusChange bootingDone = new MENetworkBootingStatusChange(false);
+        for (Attach attach : this.attaches) {
+            this.grid.postEventTo(attach.node, bootingDone);
+        }
+    }
+
+    /**
+     * Try to allocate a channel along the path from {@code start} to the controller.
+     *
+     * @return true if allocation was successful
+     */
+    private boolean tryUseChannel(GridNode start) {
+        final List<IPathItem> path = new ArrayList<>();
+        if (!collectPathToController(start, path)) {
+            return false;
+        }
+
+        // Check that the allocation is possible.
+        for (IPathItem item : path) {
+            if (item instanceof GridNode node && getChannels(node) >= node.getMaxChannels()) {
+                return false;
+            }
+        }
+
+        // Allocate the channel along the path.
+        for (IPathItem item : path) {
+            this.channelBottlenecks.addTo(item, 1);
+            this.touched.add(item);
+        }
+        this.channelsByBlocksDelta += path.size();
+        return true;
+    }
+
+    private int getChannels(GridNode node) {
+        return node.getUsedChannels() + this.channelBottlenecks.getInt(node);
+    }
+
+    /**
+     * Walks the controller route upwards from {@code start}, adding it and every node and connection below the controller
+     * to {@code out}.
+     *
+     * @return false if the route does not end at a controller of this grid, or passes through a node whose channel
+     *         capacity depends on more than its own path
+     */
+    private boolean collectPathToController(GridNode start, List<IPathItem> out) {
+        int remaining = this.grid.getNodes().size() + 1;
+        GridNode current = start;
+        while (!isController(current)) {
+            if (--remaining < 0 || current.getGrid() != this.grid
+                    || current.getConnections().isEmpty()
+                    || !isPlainDevice(current)) {
+                return false;
+            }
+            out.add(current);
+            final GridConnection route = (GridConnection) current.getControllerRoute();
+            if (route.b() != current || this.removedConnections.contains(route)) {
+                return false;
+            }
+            out.add(route);
+            current = route.a();
+        }
+        return true;
+    }
+
+    private static boolean isController(GridNode node) {
+        return node.getMachine() instanceof TileController;
+    }
+
+    /**
+     * @return Whether the node has none of the flags that make channel assignment depend on more than its own path.
+     */
+    private static boolean isPlainDevice(GridNode node) {
+        return !isController(node) && !node.hasFlag(GridFlags.MULTIBLOCK)
+                && !node.hasFlag(GridFlags.COMPRESSED_CHANNEL)
+                && !node.hasFlag(GridFlags.CANNOT_CARRY_COMPRESSED)
+                && !node.hasFlag(GridFlags.CANNOT_CARRY);
+    }
+
+    public int getChannelsInUseDelta() {
+        return this.channelsInUseDelta;
+    }
+
+    public int getChannelsByBlocksDelta() {
+        return this.channelsByBlocksDelta;
+    }
+
+    public int getStarvedNodes() {
+        return this.starvedNodes;
+    }
+
+    private static final class Attach {
+
+        private final GridNode node;
+        private final GridConnection connection;
+        private final GridNode parent;
+
+        private Attach(GridNode node, GridConnection connection, GridNode parent) {
+            this.node = node;
+            this.connection = connection;
+            this.parent = parent;
+        }
+    }
+
+    private static final class Detach {
+
+        private final GridNode node;
+        private final int usedChannels;
+        private final List<IPathItem> path;
+
+        private Detach(GridNode node, int usedChannels, List<IPathItem> path) {
+            this.node = node;
+            this.usedChannels = usedChannels;
+            this.path = path;
+        }
+    }
+}
@@ -13,10 +13,16 @@ package appeng.me.storage;
 import static appeng.util.item.AEFluidStackType.FLUID_STACK_TYPE;
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
@@ -39,19 +45,40 @@ import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
+import appeng.core.AEConfig;
 import appeng.tile.inventory.IAEStackInventory;
 import appeng.util.Platform;
+import cpw.mods.fml.common.network.ByteBufUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 public abstract class CellInventory<StackType extends IAEStack<StackType>> implements ICellInventory<StackType> {
 
     private static final String STACK_SLOT = "#";
     private static final String STACK_SLOT_COUNT = "@";
+    /**
+     * All stacks of the cell as a single byte array, written instead of the slots when
+     * {@link AEConfig#compactCellStorage} is enabled. See {@link #writeCompactStacks()} for the layout.
+     */
+    private static final String STACK_DATA = "$";
+    private static final byte STACK_DATA_VERSION = 1;
+    /**
+     * Cells with changes not yet written to their tag, see {@link #flushDirtyCells()}.
+     */
+    private static final Set<CellInventory<?>> dirtyCells = new ReferenceLinkedOpenHashSet<>();
     protected final NBTTagCompound tagCompound;
     protected final ISaveProvider container;
     private int maxTypes = 63;
     protected short storedTypes = 0;
     protected long storedCount = 0;
-    protected final IItemList<StackType> cellStacks;
+    /**
+     * Decoded from the tag on first access, see {@link #getCellStacks()}.
+     */
+    private IItemList<StackType> cellStacks;
     private final ItemStack cellItem;
     private final IStorageCell cellType;
     private boolean cardVoidOverflow = false;
@@ -60,6 +87,19 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
     private long restrictionLong = 0;
     private int typeWeight = 8;
     private final int distTypesCount;
+    /**
+     * The stack stored in each slot of the tag, and the slot of each stack.
+     */
+    private final List<StackType> slots = new ArrayList<>();
+    private final Reference2IntOpenHashMap<StackType> slotIndex = new Reference2IntOpenHashMap<>();
+    /**
+     * Stacks whose size changed since the tag was last written.
+     */
+    private final Set<StackType> changedStacks = new ReferenceOpenHashSet<>();
+    /**
+     * Told about every stored stack whose size changed, see {@link ExtractionRoutingIndex}.
+     */
+    private Consumer<StackType> contentListener = null;
 
     protected CellInventory(final ItemStack o, final ISaveProvider container) throws AppEngException {
         if (o == null) {
@@ -90,15 +130,16 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
 
         this.container = container;
         this.tagCompound = Platform.openNbtData(o);
+        this.slotIndex.defaultReturnValue(-1);
+
+        // another inventory of the same cell might not have written its changes yet
+        flushDirtyCells(this.tagCompound);
 
         this.storedTypes = this.tagCompound.getShort(getStackTypeTag());
         this.storedCount = this.tagCompound.getLong(getStackCountTag());
         this.restrictionTypes = this.tagCompound.getByte("cellRestrictionTypes");
         this.restrictionLong = this.tagCompound.getLong("cellRestrictionAmount");
 
-        this.cellStacks = (IItemList<StackType>) this.getStackType().createPrimitiveList();
-        this.loadCellStacks();
-
         final IInventory upgrades = this.getUpgradesInventory();
         for (int x = 0; x < upgrades.getSizeInventory(); x++) {
             final ItemStack is = upgrades.getStackInSlot(x);
@@ -200,7 +241,8 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
 
         final StackType l = this.getCellStacks().findPrecise(input);
 
-        if (l != null) {
+        // emptied stacks stay in the list until it is iterated, but no longer count as a stored type
+        if (l != null && l.getStackSize() > 0) {
             long remainingItemSlots;
             if (cardDistribution) {
                 remainingItemSlots = this.getRemainingItemsCountDist(l);
@@ -222,7 +264,7 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + remainingItemSlots);
                     this.updateItemCount(remainingItemSlots);
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
 
                 return r;
@@ -230,7 +272,7 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() + input.getStackSize());
                     this.updateItemCount(input.getStackSize());
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
 
                 return null;
@@ -259,17 +301,13 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
                         final StackType toWrite = input.copy();
                         toWrite.setStackSize(remainingItemCount);
 
-                        this.cellStacks.add(toWrite);
-                        this.updateItemCount(toWrite.getStackSize());
-                        this.saveChanges();
+                        this.addStack(toWrite);
                     }
                     return toReturn;
                 }
 
                 if (mode == Actionable.MODULATE) {
-                    this.updateItemCount(input.getStackSize());
-                    this.cellStacks.add(input);
-                    this.saveChanges();
+                    this.addStack(input);
                 }
 
                 return null;
@@ -291,7 +329,7 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
 
         final StackType l = this.getCellStacks().findPrecise(request);
 
-        if (l != null) {
+        if (l != null && l.getStackSize() > 0) {
             results = l.copy();
 
             if (l.getStackSize() <= size) {
@@ -300,7 +338,8 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
                 if (mode == Actionable.MODULATE) {
                     this.updateItemCount(-l.getStackSize());
                     l.setStackSize(0);
-                    this.saveChanges();
+                    this.storedTypes--;
+                    this.saveChanges(l);
                 }
             } else {
                 results.setStackSize(size);
@@ -308,7 +347,7 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
                 if (mode == Actionable.MODULATE) {
                     l.setStackSize(l.getStackSize() - size);
                     this.updateItemCount(-size);
-                    this.saveChanges();
+                    this.saveChanges(l);
                 }
             }
         }
@@ -317,61 +356,252 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
     }
 
     private IItemList<StackType> getCellStacks() {
+        if (this.cellStacks == null) {
+            this.cellStacks = (IItemList<StackType>) this.getStackType().createPrimitiveList();
+            this.loadCellStacks();
+        }
         return this.cellStacks;
     }
 
     private void updateItemCount(final long delta) {
         this.storedCount += delta;
-        this.tagCompound.setLong(getStackCountTag(), this.storedCount);
     }
 
+    /**
+     * Stores a stack of a type that is not stored yet, or whose stack was emptied.
+     */
+    private void addStack(final StackType input) {
+        final IItemList<StackType> stacks = this.getCellStacks();
+        stacks.add(input);
+        this.updateItemCount(input.getStackSize());
+        this.storedTypes++;
+        // the list stores a copy
+        this.saveChanges(stacks.findPrecise(input));
+    }
+
+    /**
+     * Marks the given stack as changed, its slot is written when the cell is flushed, or right away if the cell has no
+     * container.
+     */
+    private void saveChanges(final StackType changed) {
+        if (this.contentListener != null) {
+            this.contentListener.accept(changed);
+        }
+        this.changedStacks.add(changed);
+        if (this.container == null) {
+            // nothing flushes a cell without a container before its stack is copied, e.g. by the IO Port
+            this.flush();
+            return;
+        }
+        synchronized (CellInventory.class) {
+            dirtyCells.add(this);
+        }
+    }
+
+    /**
+     * Rewrites every slot of the tag.
+     */
     protected void saveChanges() {
-        // cellItems.clean();
-        long itemCount = 0;
+        synchronized (CellInventory.class) {
+            dirtyCells.remove(this);
+        }
+        this.changedStacks.clear();
 
-        // add new pretty stuff...
-        int x = 0;
+        final int oldStoredItems = Math.max(this.storedTypes, this.slots.size());
+        this.slots.clear();
+        this.slotIndex.clear();
 
-        for (final StackType v : this.cellStacks) {
+        long itemCount = 0;
+        for (final StackType v : this.getCellStacks()) {
             itemCount += v.getStackSize();
+        }
+        this.storedCount = itemCount;
+
+        final boolean compact = AEConfig.instance.compactCellStorage && this.writeCompactStacks();
+        if (!compact) {
+            for (final StackType v : this.getCellStacks()) {
+                this.writeSlot(this.slots.size(), v);
+            }
+        }
+
+        // clean any old crusty stuff...
+        for (int x = this.slots.size(); x < oldStoredItems && x < this.maxTypes; x++) {
+            this.tagCompound.removeTag(STACK_SLOT + x);
+            this.tagCompound.removeTag(STACK_SLOT_COUNT + x);
+        }
+
+        if (!compact) {
+            this.tagCompound.removeTag(STACK_DATA);
+            this.writeTotals(this.slots.size());
+        }
+    }
 
-            final NBTBase c = this.tagCompound.getTag(STACK_SLOT + x);
+    /**
+     * Writes the slots of the stacks changed since the last write. Emptied slots are filled with the last slot, so that
+     * the slots stay contiguous.
+     */
+    private void flush() {
+        if (this.changedStacks.isEmpty()) {
+            return;
+        }
 
-            if (c instanceof NBTTagCompound nbt) {
-                v.writeToNBT(nbt);
+        if (AEConfig.instance.compactCellStorage || this.tagCompound.hasKey(STACK_DATA)) {
+            if (AEConfig.instance.compactCellStorage && this.slots.isEmpty() && this.writeCompactStacks()) {
+                this.changedStacks.clear();
             } else {
-                final NBTTagCompound g = new NBTTagCompound();
-                v.writeToNBT(g);
-                this.tagCompound.setTag(STACK_SLOT + x, g);
+                // the stored layout changes, rewrite it entirely
+                this.saveChanges();
+            }
+            return;
+        }
+
+        for (final StackType v : this.changedStacks) {
+            final int x = this.slotIndex.getInt(v);
+            if (v.getStackSize() > 0) {
+                if (x < 0) {
+                    this.writeSlot(this.slots.size(), v);
+                } else {
+                    this.tagCompound.setLong(STACK_SLOT_COUNT + x, v.getStackSize());
+                }
+            } else if (x >= 0) {
+                this.slotIndex.removeInt(v);
+                final int last = this.slots.size() - 1;
+                final StackType moved = this.slots.remove(last);
+                if (x != last) {
+                    this.writeSlot(x, moved);
+                }
+                this.tagCompound.removeTag(STACK_SLOT + last);
+                this.tagCompound.removeTag(STACK_SLOT_COUNT + last);
+            }
+        }
+        this.changedStacks.clear();
+
+        this.writeTotals(this.slots.size());
+    }
+
+    private void writeSlot(final int x, final StackType v) {
+        if (x == this.slots.size()) {
+            this.slots.add(v);
+        } else {
+            this.slots.set(x, v);
+        }
+        this.slotIndex.put(v, x);
+
+        final NBTBase c = this.tagCompound.getTag(STACK_SLOT + x);
+
+        if (c instanceof NBTTagCompound nbt) {
+            v.writeToNBT(nbt);
+        } else {
+            final NBTTagCompound g = new NBTTagCompound();
+            v.writeToNBT(g);
+            this.tagCompound.setTag(STACK_SLOT + x, g);
+        }
+
+        this.tagCompound.setLong(STACK_SLOT_COUNT + x, v.getStackSize());
+    }
+
+    /**
+     * Writes all stacks to {@link #STACK_DATA}. Item names are written once into a dictionary that the stacks refer to
+     * by index:
+     *
+     * <pre>
+     * byte version
+     * varint names, names * utf8 name
+     * varint stacks, stacks * (varint name index, varint meta, varlong count, byte hasTag, [nbt tag])
+     * </pre>
+     *
+     * @return false if a stack has no name, in which case nothing was written and the slots have to be used instead
+     */
+    private boolean writeCompactStacks() {
+        final Object2IntLinkedOpenHashMap<String> names = new Object2IntLinkedOpenHashMap<>();
+        final List<StackType> stored = new ArrayList<>();
+        for (final StackType v : this.getCellStacks()) {
+            if (v.getStackSize() > 0) {
+                final String name = this.getStackName(v);
+                if (name == null) {
+                    return false;
+                }
+                names.putIfAbsent(name, names.size());
+                stored.add(v);
+            }
+        }
+
+        if (stored.isEmpty()) {
+            this.tagCompound.removeTag(STACK_DATA);
+            this.writeTotals(0);
+            return true;
+        }
+
+        final ByteBuf data = Unpooled.buffer();
+        data.writeByte(STACK_DATA_VERSION);
+        ByteBufUtils.writeVarInt(data, names.size(), 5);
+        for (final String name : names.keySet()) {
+            ByteBufUtils.writeUTF8String(data, name);
+        }
+
+        ByteBufUtils.writeVarInt(data, stored.size(), 5);
+        for (final StackType v : stored) {
+            ByteBufUtils.writeVarInt(data, names.getInt(this.getStackName(v)), 5);
+            ByteBufUtils.writeVarInt(data, this.getStackMeta(v), 5);
+            Platform.writeVarLong(data, v.getStackSize());
+
+            final NBTTagCompound tag = (NBTTagCompound) v.getTagCompound();
+            data.writeBoolean(tag != null);
+            if (tag != null) {
+                ByteBufUtils.writeTag(data, tag);
             }
+        }
 
-            this.tagCompound.setLong(STACK_SLOT_COUNT + x, v.getStackSize());
+        final byte[] bytes = new byte[data.readableBytes()];
+        data.readBytes(bytes);
+        this.tagCompound.setByteArray(STACK_DATA, bytes);
+        this.writeTotals(stored.size());
+        return true;
+    }
+
+    /**
+     * @return the number of stacks in {@link #STACK_DATA}, including the ones that could not be read
+     */
+    private int readCompactStacks() {
+        final ByteBuf data = Unpooled.wrappedBuffer(this.tagCompound.getByteArray(STACK_DATA));
+        if (!data.isReadable() || data.readByte() != STACK_DATA_VERSION) {
+            return 0;
+        }
 
-            x++;
+        final String[] names = new String[ByteBufUtils.readVarInt(data, 5)];
+        for (int x = 0; x < names.length; x++) {
+            names[x] = ByteBufUtils.readUTF8String(data);
         }
 
-        final short oldStoredItems = this.storedTypes;
+        final int stacks = ByteBufUtils.readVarInt(data, 5);
+        for (int x = 0; x < stacks; x++) {
+            final String name = names[ByteBufUtils.readVarInt(data, 5)];
+            final int meta = ByteBufUtils.readVarInt(data, 5);
+            final long count = Platform.readVarLong(data);
+            final NBTTagCompound tag = data.readBoolean() ? ByteBufUtils.readTag(data) : null;
 
-        this.storedTypes = (short) this.cellStacks.size();
+            final StackType ias = this.createStack(name, meta, tag);
+            if (ias != null && count > 0) {
+                ias.setStackSize(count);
+                this.cellStacks.add(ias);
+            }
+        }
+        return stacks;
+    }
+
+    private void writeTotals(final int types) {
+        this.storedTypes = (short) types;
 
-        if (this.cellStacks.isEmpty()) {
+        if (this.storedTypes == 0) {
             this.tagCompound.removeTag(getStackTypeTag());
         } else {
             this.tagCompound.setShort(getStackTypeTag(), this.storedTypes);
         }
 
-        this.storedCount = itemCount;
-
-        if (itemCount == 0) {
+        if (this.storedCount == 0) {
             this.tagCompound.removeTag(getStackCountTag());
         } else {
-            this.tagCompound.setLong(getStackCountTag(), itemCount);
-        }
-
-        // clean any old crusty stuff...
-        for (; x < oldStoredItems && x < this.maxTypes; x++) {
-            this.tagCompound.removeTag(STACK_SLOT + x);
-            this.tagCompound.removeTag(STACK_SLOT_COUNT + x);
+            this.tagCompound.setLong(getStackCountTag(), this.storedCount);
         }
 
         if (this.container != null) {
@@ -379,26 +609,86 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
         }
     }
 
+    /**
+     * Writes the changes of every cell to their tag. Called at the end of every server tick and when the world is
+     * saved.
+     */
+    public static void flushDirtyCells() {
+        final List<CellInventory<?>> dirty;
+        synchronized (CellInventory.class) {
+            if (dirtyCells.isEmpty()) {
+                return;
+            }
+            dirty = new ArrayList<>(dirtyCells);
+            dirtyCells.clear();
+        }
+
+        for (final CellInventory<?> cell : dirty) {
+            cell.flush();
+        }
+    }
+
+    /**
+     * Writes the changes of the cells stored in the given container to their tag, before the container stops tracking
+     * them.
+     */
+    public static void flushDirtyCells(final ISaveProvider container) {
+        flushDirtyCells(cell -> cell.container == container);
+    }
+
+    private static void flushDirtyCells(final NBTTagCompound tag) {
+        flushDirtyCells(cell -> cell.tagCompound == tag);
+    }
+
+    private static void flushDirtyCells(final Predicate<CellInventory<?>> filter) {
+        final List<CellInventory<?>> dirty = new ArrayList<>();
+        synchronized (CellInventory.class) {
+            final Iterator<CellInventory<?>> it = dirtyCells.iterator();
+            while (it.hasNext()) {
+                final CellInventory<?> cell = it.next();
+                if (filter.test(cell)) {
+                    dirty.add(cell);
+                    it.remove();
+                }
+            }
+        }
+
+        for (final CellInventory<?> cell : dirty) {
+            cell.flush();
+        }
+    }
+
     protected void loadCellStacks() {
         final int types = (int) this.getStoredItemTypes();
 
+        if (this.tagCompound.hasKey(STACK_DATA)) {
+            if (this.readCompactStacks() != types) {
+                this.saveChanges();
+            }
+            return;
+        }
+
         for (int x = 0; x < types; x++) {
             final StackType ias = readStack(this.tagCompound.getCompoundTag(STACK_SLOT + x));
             if (ias != null) {
                 ias.setStackSize(this.tagCompound.getLong(STACK_SLOT_COUNT + x));
-                if (ias.getStackSize() > 0) {
-                    this.cellStacks.add(ias);
-                } else {
+                if (ias.getStackSize() <= 0) {
                     // Dirty Compact for EC2
                     ias.setStackSize(this.tagCompound.getCompoundTag(STACK_SLOT + x).getLong("Cnt"));
-                    if (ias.getStackSize() > 0) {
-                        this.cellStacks.add(ias);
+                }
+                if (ias.getStackSize() > 0) {
+                    final boolean duplicate = this.cellStacks.findPrecise(ias) != null;
+                    this.cellStacks.add(ias);
+                    if (!duplicate) {
+                        final StackType stored = this.cellStacks.findPrecise(ias);
+                        this.slotIndex.put(stored, this.slots.size());
+                        this.slots.add(stored);
                     }
                 }
             }
         }
 
-        if (this.cellStacks.size() != types) {
+        if (this.slots.size() != types) {
             // fix broken singularity cells
             this.saveChanges();
         }
@@ -406,6 +696,40 @@ public abstract class CellInventory<StackType extends IAEStack<StackType>> imple
 
     protected abstract StackType readStack(NBTTagCompound tag);
 
+    /**
+     * @return the registry name of the stack's item or fluid, or null if it has none
+     */
+    protected abstract String getStackName(StackType stack);
+
+    protected abstract int getStackMeta(StackType stack);
+
+    /**
+     * Creates a stack of size 1 from the values written by {@link #writeCompactStacks()}.
+     *
+     * @return null if the item or fluid no longer exists
+     */
+    protected abstract StackType createStack(String name, int meta, NBTTagCompound tag);
+
+    void setContentListener(@Nullable final Consumer<StackType> listener) {
+        this.contentListener = listener;
+    }
+
+    /**
+     * Removes the listener, unless another one was set since.
+     */
+    void removeContentListener(final Consumer<StackType> listener) {
+        if (this.contentListener == listener) {
+            this.contentListener = null;
+        }
+    }
+
+    /**
+     * @return The stored stacks, emptied stacks may still be included
+     */
+    Iterable<StackType> getStoredStacks() {
+        return this.getCellStacks();
+    }
+
     @Override
     public IItemList<StackType> getAvailableItems(final IItemList<StackType> out, int iteration) {
         for (final StackType i : this.getCellStacks()) {
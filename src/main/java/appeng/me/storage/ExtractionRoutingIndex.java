@@ -0,0 +1,173 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import appeng.api.storage.IMEInventory;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEStack;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+
+/**
+ * Maps the stacks stored in the storage cells of a {@link NetworkInventoryHandler} to the handlers of those cells, so
+ * that extracting a stack skips the cells that do not hold it.
+ * <p>
+ * Only handlers that wrap a {@link CellInventory} are indexed, the cell reports every changed stack to the index.
+ * Every other handler, like storage buses, is a candidate for every stack. The candidates of a stack are kept until one
+ * of its holders changes. The index is a snapshot of the handler list; it is rebuilt together with the network storage
+ * whenever a {@link appeng.api.networking.events.MENetworkCellArrayUpdate} is posted, and must be released then.
+ */
+final class ExtractionRoutingIndex<T extends IAEStack<T>> {
+
+    private final List<IMEInventoryHandler<T>> handlers;
+    /**
+     * The handlers that are not indexed, the candidates of the stacks no indexed cell holds.
+     */
+    private final List<IMEInventoryHandler<T>> untracked;
+    private final int[] untrackedPositions;
+    private final Map<T, Holders<T>> holders = new HashMap<>();
+    /**
+     * The listeners this index set on the indexed cells.
+     */
+    private final Map<CellInventory<T>, Consumer<T>> listeners = new IdentityHashMap<>();
+    /**
+     * Whether no handler is indexed, in which case the index is not used.
+     */
+    private final boolean trivial;
+
+    ExtractionRoutingIndex(final List<IMEInventoryHandler<T>> handlers) {
+        this.handlers = new ArrayList<>(handlers);
+
+        final IntArrayList untracked = new IntArrayList();
+        for (int i = 0; i < this.handlers.size(); i++) {
+            final CellInventory<T> cell = findCell(this.handlers.get(i));
+            if (cell == null) {
+                untracked.add(i);
+                continue;
+            }
+
+            final int position = i;
+            for (final T stack : cell.getStoredStacks()) {
+                this.update(stack, position);
+            }
+            final Consumer<T> listener = stack -> this.update(stack, position);
+            cell.setContentListener(listener);
+            this.listeners.put(cell, listener);
+        }
+
+        this.untrackedPositions = untracked.toIntArray();
+        this.untracked = this.getHandlers(this.untrackedPositions);
+        this.trivial = this.untrackedPositions.length == this.handlers.size();
+    }
+
+    /**
+     * @return The handlers that might hold the given stack, in the order of the indexed handler list.
+     */
+    List<IMEInventoryHandler<T>> getCandidates(final T request) {
+        if (this.trivial) {
+            return this.handlers;
+        }
+
+        final Holders<T> holders = this.holders.get(request);
+        if (holders == null) {
+            return this.untracked;
+        }
+
+        if (holders.candidates == null) {
+            final int untracked = this.untrackedPositions.length;
+            final int[] positions = Arrays.copyOf(this.untrackedPositions, untracked + holders.positions.size());
+            int i = untracked;
+            for (final int position : holders.positions) {
+                positions[i++] = position;
+            }
+            Arrays.sort(positions);
+            holders.candidates = this.getHandlers(positions);
+        }
+        return holders.candidates;
+    }
+
+    /**
+     * Stops the indexed cells from reporting their changes to this index, which is no longer used.
+     */
+    void release() {
+        for (final Map.Entry<CellInventory<T>, Consumer<T>> entry : this.listeners.entrySet()) {
+            entry.getKey().removeContentListener(entry.getValue());
+        }
+        this.listeners.clear();
+    }
+
+    private List<IMEInventoryHandler<T>> getHandlers(final int[] positions) {
+        final List<IMEInventoryHandler<T>> candidates = new ArrayList<>(positions.length);
+        for (final int position : positions) {
+            candidates.add(this.handlers.get(position));
+        }
+        return Collections.unmodifiableList(candidates);
+    }
+
+    private void update(final T stack, final int position) {
+        if (stack.getStackSize() > 0) {
+            Holders<T> holders = this.holders.get(stack);
+            if (holders == null) {
+                this.holders.put(stack.copy(), holders = new Holders<>());
+            }
+            if (holders.positions.add(position)) {
+                holders.candidates = null;
+            }
+        } else {
+            final Holders<T> holders = this.holders.get(stack);
+            if (holders != null && holders.positions.remove(position)) {
+                if (holders.positions.isEmpty()) {
+                    this.holders.remove(stack);
+                } else {
+                    holders.candidates = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * The positions of the cells that hold a stack, and the candidates merged from them on the first lookup.
+     */
+    private static final class Holders<T extends IAEStack<T>> {
+
+        private final IntSet positions = new IntOpenHashSet(1);
+        private List<IMEInventoryHandler<T>> candidates = null;
+    }
+
+    /**
+     * Walks the {@link MEInventoryHandler} and {@link MEPassThrough} layers of the handler.
+     *
+     * @return The cell at the bottom, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends IAEStack<T>> CellInventory<T> findCell(final IMEInventoryHandler<T> handler) {
+        IMEInventory<T> layer = handler;
+        while (true) {
+            if (layer instanceof MEInventoryHandler<T>meHandler) {
+                layer = meHandler.getInternal();
+            } else if (layer instanceof MEPassThrough<T>passThrough) {
+                layer = passThrough.getInternal();
+            } else {
+                return layer instanceof CellInventory<?>cell ? (CellInventory<T>) cell : null;
+            }
+        }
+    }
+}
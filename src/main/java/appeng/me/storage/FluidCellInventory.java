@@ -2,6 +2,9 @@ package appeng.me.storage;
 
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidRegistry;
+import net.minecraftforge.fluids.FluidStack;
 
 import appeng.api.exceptions.AppEngException;
 import appeng.api.storage.ISaveProvider;
@@ -21,6 +24,26 @@ public class FluidCellInventory extends CellInventory<IAEFluidStack> {
         return AEFluidStack.loadFluidStackFromNBT(tag);
     }
 
+    @Override
+    protected String getStackName(IAEFluidStack stack) {
+        return stack.getFluid().getName();
+    }
+
+    @Override
+    protected int getStackMeta(IAEFluidStack stack) {
+        return 0;
+    }
+
+    @Override
+    protected IAEFluidStack createStack(String name, int meta, NBTTagCompound tag) {
+        final Fluid fluid = FluidRegistry.getFluid(name);
+        if (fluid == null) {
+            return null;
+        }
+
+        return AEFluidStack.create(new FluidStack(fluid, 1, tag));
+    }
+
     @Override
     protected String getStackTypeTag() {
         return "ft";
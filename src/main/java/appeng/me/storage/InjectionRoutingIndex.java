@@ -0,0 +1,218 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2014, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.me.storage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.item.Item;
+
+import appeng.api.config.AccessRestriction;
+import appeng.api.config.IncludeExclude;
+import appeng.api.storage.IMEInventory;
+import appeng.api.storage.IMEInventoryHandler;
+import appeng.api.storage.data.IAEFluidStack;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStack;
+import appeng.util.item.AEItemStack;
+import appeng.util.prioitylist.FuzzyPriorityList;
+import appeng.util.prioitylist.IPartitionList;
+import appeng.util.prioitylist.PrecisePriorityList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Maps the partition entries of the handlers of a {@link NetworkInventoryHandler} to the handlers that could accept
+ * them, so that inserting a stack only visits the handlers that are not known to reject it.
+ * <p>
+ * A handler is only indexed if one of its {@link MEInventoryHandler} layers is whitelisted to a
+ * {@link PrecisePriorityList}, or to a {@link FuzzyPriorityList} of items or fluids. Handlers without write access are
+ * dropped, every other handler is a candidate for every stack. The candidates of every indexed stack are merged when
+ * the index is built. The index is a snapshot of the handler list and their partitions; it is rebuilt together with
+ * the network storage whenever a {@link appeng.api.networking.events.MENetworkCellArrayUpdate} is posted.
+ */
+final class InjectionRoutingIndex<T extends IAEStack<T>> {
+
+    private final List<IMEInventoryHandler<T>> handlers;
+    /**
+     * The handlers that may accept any stack, the candidates of the stacks without an entry.
+     */
+    private final List<IMEInventoryHandler<T>> unrestricted;
+    /**
+     * The candidates of ores without a precise entry, together with the handlers that are fuzzy partitioned to items.
+     */
+    private final List<IMEInventoryHandler<T>> ores;
+    private final Map<T, List<IMEInventoryHandler<T>>> precise = new HashMap<>();
+    private final Map<Item, List<IMEInventoryHandler<T>>> fuzzyItems = new IdentityHashMap<>();
+    /**
+     * Whether every handler is a candidate for every stack, in which case the index is not used.
+     */
+    private final boolean trivial;
+
+    InjectionRoutingIndex(final List<IMEInventoryHandler<T>> handlers) {
+        this.handlers = new ArrayList<>(handlers);
+
+        final IntArrayList unrestricted = new IntArrayList();
+        final IntArrayList fuzzyItemHandlers = new IntArrayList();
+        final Map<T, IntArrayList> precise = new HashMap<>();
+        final Map<Item, IntArrayList> fuzzyItems = new IdentityHashMap<>();
+        boolean trivial = true;
+
+        for (int i = 0; i < this.handlers.size(); i++) {
+            final IMEInventoryHandler<T> handler = this.handlers.get(i);
+            if (isReadOnly(handler)) {
+                trivial = false;
+                continue;
+            }
+
+            final IPartitionList<T> partition = findWhitelist(handler);
+            if (partition instanceof PrecisePriorityList) {
+                for (final T entry : partition.getItems()) {
+                    addTo(precise, entry, i);
+                }
+                trivial = false;
+            } else if (partition instanceof FuzzyPriorityList && canIndexFuzzy(partition)) {
+                boolean items = false;
+                for (final T entry : partition.getItems()) {
+                    if (entry instanceof IAEItemStack item) {
+                        addTo(fuzzyItems, item.getItem(), i);
+                        items = true;
+                    } else {
+                        // fuzzy fluid lookups are precise
+                        addTo(precise, entry, i);
+                    }
+                }
+                if (items) {
+                    fuzzyItemHandlers.add(i);
+                }
+                trivial = false;
+            } else {
+                unrestricted.add(i);
+            }
+        }
+
+        this.trivial = trivial;
+        this.unrestricted = this.merge(unrestricted, null, null);
+        this.ores = this.merge(unrestricted, fuzzyItemHandlers, null);
+        for (final Map.Entry<Item, IntArrayList> entry : fuzzyItems.entrySet()) {
+            this.fuzzyItems.put(entry.getKey(), this.merge(unrestricted, entry.getValue(), null));
+        }
+        for (final Map.Entry<T, IntArrayList> entry : precise.entrySet()) {
+            final T stack = entry.getKey();
+            IntArrayList fuzzy = null;
+            if (stack instanceof AEItemStack ais && ais.isOre()) {
+                // ore dictionary matches can cross item boundaries
+                fuzzy = fuzzyItemHandlers;
+            } else if (stack instanceof IAEItemStack item) {
+                fuzzy = fuzzyItems.get(item.getItem());
+            }
+            this.precise.put(stack, this.merge(unrestricted, entry.getValue(), fuzzy));
+        }
+    }
+
+    /**
+     * @return The handlers that might accept the given stack, in the order of the indexed handler list.
+     */
+    List<IMEInventoryHandler<T>> getCandidates(final T input) {
+        if (this.trivial) {
+            return this.handlers;
+        }
+
+        final List<IMEInventoryHandler<T>> precise = this.precise.get(input);
+        if (precise != null) {
+            return precise;
+        }
+
+        if (input instanceof IAEItemStack item) {
+            if (item instanceof AEItemStack ais && ais.isOre()) {
+                return this.ores;
+            }
+            final List<IMEInventoryHandler<T>> fuzzy = this.fuzzyItems.get(item.getItem());
+            if (fuzzy != null) {
+                return fuzzy;
+            }
+        }
+        return this.unrestricted;
+    }
+
+    /**
+     * @return The handlers at the given positions without duplicates, in the order of the indexed handler list
+     */
+    private List<IMEInventoryHandler<T>> merge(final IntArrayList first, final IntArrayList second,
+            final IntArrayList third) {
+        final IntArrayList positions = new IntArrayList(first);
+        if (second != null) {
+            positions.addAll(second);
+        }
+        if (third != null) {
+            positions.addAll(third);
+        }
+
+        final int[] sorted = positions.toIntArray();
+        Arrays.sort(sorted);
+
+        final List<IMEInventoryHandler<T>> candidates = new ArrayList<>(sorted.length);
+        int last = -1;
+        for (final int position : sorted) {
+            if (position != last) {
+                candidates.add(this.handlers.get(position));
+                last = position;
+            }
+        }
+        return Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * @return Whether every entry is an item or a fluid, the only types whose fuzzy matches are known
+     */
+    private static <T extends IAEStack<T>> boolean canIndexFuzzy(final IPartitionList<T> partition) {
+        for (final T entry : partition.getItems()) {
+            if (!(entry instanceof IAEItemStack) && !(entry instanceof IAEFluidStack)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <K> void addTo(final Map<K, IntArrayList> map, final K key, final int position) {
+        final IntArrayList positions = map.computeIfAbsent(key, k -> new IntArrayList(1));
+        if (positions.isEmpty() || positions.getInt(positions.size() - 1) != position) {
+            positions.add(position);
+        }
+    }
+
+    private static boolean isReadOnly(final IMEInventoryHandler<?> handler) {
+        return handler instanceof MEInventoryHandler<?>meHandler
+                && !meHandler.getAccess().hasPermission(AccessRestriction.WRITE);
+    }
+
+    /**
+     * Walks the {@link MEInventoryHandler} layers of the handler, each of which only accepts what its own partition and
+     * the layers below it accept.
+     *
+     * @return The first non-empty whitelist partition, or null if the handler is not whitelisted
+     */
+    private static <T extends IAEStack<T>> IPartitionList<T> findWhitelist(final IMEInventoryHandler<T> handler) {
+        IMEInventory<T> layer = handler;
+        while (layer instanceof MEInventoryHandler<T>meHandler) {
+            final IPartitionList<T> partition = meHandler.getPartitionList();
+            if (meHandler.getWhitelist() == IncludeExclude.WHITELIST && partition != null && !partition.isEmpty()) {
+                return partition;
+            }
+            layer = meHandler.getInternal();
+        }
+        return null;
+    }
+}
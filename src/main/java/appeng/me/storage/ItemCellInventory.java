@@ -1,5 +1,6 @@
 package appeng.me.storage;
 
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 
@@ -21,6 +22,28 @@ public class ItemCellInventory extends CellInventory<IAEItemStack> {
         return AEItemStack.loadItemStackFromNBT(tag);
     }
 
+    @Override
+    protected String getStackName(IAEItemStack stack) {
+        return Item.itemRegistry.getNameForObject(stack.getItem());
+    }
+
+    @Override
+    protected int getStackMeta(IAEItemStack stack) {
+        return stack.getItemDamage();
+    }
+
+    @Override
+    protected IAEItemStack createStack(String name, int meta, NBTTagCompound tag) {
+        final Item item = (Item) Item.itemRegistry.getObject(name);
+        if (item == null) {
+            return null;
+        }
+
+        final ItemStack is = new ItemStack(item, 1, meta);
+        is.setTagCompound(tag);
+        return AEItemStack.create(is);
+    }
+
     @Override
     protected String getStackTypeTag() {
         return "it";
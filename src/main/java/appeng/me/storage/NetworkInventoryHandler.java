@@ -13,9 +13,10 @@ package appeng.me.storage;
 import static appeng.util.item.AEFluidStackType.FLUID_STACK_TYPE;
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
 
 import javax.annotation.Nonnull;
@@ -39,6 +40,7 @@ import appeng.api.storage.data.IAEStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
 import appeng.me.cache.SecurityCache;
+import appeng.util.ReentrancyGuard;
 import appeng.util.SortedArrayList;
 import appeng.util.inv.ItemListIgnoreCrafting;
 import appeng.util.item.NetworkItemList;
@@ -46,8 +48,8 @@ import appeng.util.item.PrioritizedNetworkItemList;
 
 public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetworkInventory<T> {
 
-    private static final ThreadLocal<LinkedList> DEPTH_MOD = new ThreadLocal<>();
-    private static final ThreadLocal<LinkedList> DEPTH_SIM = new ThreadLocal<>();
+    private static final ReentrancyGuard DEPTH_MOD = new ReentrancyGuard();
+    private static final ReentrancyGuard DEPTH_SIM = new ReentrancyGuard();
 
     /**
      * Sorter for the {@link #priorityInventory} list. AutoCrafting inventories are first followed by Sticky
@@ -87,6 +89,14 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
     private final IAEStackType<?> type;
     private final SecurityCache security;
     private final List<IMEInventoryHandler<T>> priorityInventory;
+    /**
+     * Candidate handlers for {@link #injectItems}, rebuilt after the storage list changed.
+     */
+    private InjectionRoutingIndex<T> routingIndex = null;
+    /**
+     * Candidate handlers for {@link #extractItems}, kept up to date by the indexed cells.
+     */
+    private ExtractionRoutingIndex<T> extractionIndex = null;
     private int myPass = 0;
     private NetworkItemList<T> iterationItems = null;
     private PrioritizedNetworkItemList<T> prioritizedIterationItems = null;
@@ -99,6 +109,29 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
 
     public void addNewStorage(final IMEInventoryHandler<T> h) {
         this.priorityInventory.add(h);
+        this.releaseRoutingIndex();
+    }
+
+    /**
+     * Indexes the partitions and the cell contents of the current storage list, so that inserting or extracting a stack
+     * only visits the handlers that can accept or hold it.
+     */
+    public void buildRoutingIndex() {
+        this.releaseRoutingIndex();
+        this.routingIndex = new InjectionRoutingIndex<>(this.priorityInventory);
+        this.extractionIndex = new ExtractionRoutingIndex<>(this.priorityInventory);
+    }
+
+    /**
+     * Drops the routing index and stops the indexed cells from updating it, must be called before this handler is
+     * replaced, as the cells may outlive it.
+     */
+    public void releaseRoutingIndex() {
+        if (this.extractionIndex != null) {
+            this.extractionIndex.release();
+        }
+        this.routingIndex = null;
+        this.extractionIndex = null;
     }
 
     @Override
@@ -112,7 +145,46 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
             return input;
         }
 
-        final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+        input = this.injectIntoStorage(input, type, src);
+
+        this.surface(this, type);
+
+        return input;
+    }
+
+    @Override
+    public List<T> injectItems(final Collection<T> input, final Actionable type, final BaseActionSource src) {
+        final List<T> leftovers = new ArrayList<>(input.size());
+        if (this.diveList(this, type)) {
+            leftovers.addAll(input);
+            return leftovers;
+        }
+
+        if (this.testPermission(src, SecurityPermissions.INJECT)) {
+            this.surface(this, type);
+            leftovers.addAll(input);
+            return leftovers;
+        }
+
+        for (final T stack : input) {
+            leftovers.add(this.injectIntoStorage(stack, type, src));
+        }
+
+        this.surface(this, type);
+
+        return leftovers;
+    }
+
+    /**
+     * Distributes the input over the storage handlers, the caller is responsible for the depth and permission checks.
+     */
+    private T injectIntoStorage(T input, final Actionable type, final BaseActionSource src) {
+        if (this.routingIndex == null) {
+            this.buildRoutingIndex();
+        }
+
+        // handlers skipped by the index would reject the input anyway, so the passes below behave the same
+        final List<IMEInventoryHandler<T>> priorityInventory = this.routingIndex.getCandidates(input);
         final int size = priorityInventory.size();
 
         int i = 0;
@@ -130,7 +202,6 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
         }
 
         if (stickyInventoryFound || input == null || i >= size) {
-            this.surface(this, type);
             return input;
         }
 
@@ -206,19 +277,11 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
             }
         }
 
-        this.surface(this, type);
-
         return input;
     }
 
     private boolean diveList(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
-        final LinkedList cDepth = this.getDepth(type);
-        if (cDepth.contains(networkInventoryHandler)) {
-            return true;
-        }
-
-        cDepth.push(this);
-        return false;
+        return !this.getDepth(type).tryEnter(networkInventoryHandler);
     }
 
     private boolean testPermission(final BaseActionSource src, final SecurityPermissions permission) {
@@ -250,40 +313,72 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
     }
 
     private void surface(final NetworkInventoryHandler<T> networkInventoryHandler, final Actionable type) {
-        if (this.getDepth(type).pop() != this) {
+        if (!this.getDepth(type).exit(networkInventoryHandler)) {
             throw new IllegalStateException("Invalid Access to Networked Storage API detected.");
         }
     }
 
-    private LinkedList getDepth(final Actionable type) {
-        final ThreadLocal<LinkedList> depth = type == Actionable.MODULATE ? DEPTH_MOD : DEPTH_SIM;
+    private ReentrancyGuard getDepth(final Actionable type) {
+        return type == Actionable.MODULATE ? DEPTH_MOD : DEPTH_SIM;
+    }
 
-        LinkedList s = depth.get();
+    @Override
+    public T extractItems(T request, final Actionable mode, final BaseActionSource src) {
+        if (this.diveList(this, mode)) {
+            return null;
+        }
 
-        if (s == null) {
-            depth.set(s = new LinkedList());
+        if (this.testPermission(src, SecurityPermissions.EXTRACT)) {
+            this.surface(this, mode);
+            return null;
         }
 
-        return s;
+        final T output = this.extractFromStorage(request, mode, src);
+
+        this.surface(this, mode);
+
+        return output;
     }
 
     @Override
-    public T extractItems(T request, final Actionable mode, final BaseActionSource src) {
+    public List<T> extractItems(final Collection<T> requests, final Actionable mode, final BaseActionSource src) {
+        final List<T> extracted = new ArrayList<>(requests.size());
         if (this.diveList(this, mode)) {
-            return null;
+            extracted.addAll(Collections.nCopies(requests.size(), null));
+            return extracted;
         }
 
         if (this.testPermission(src, SecurityPermissions.EXTRACT)) {
             this.surface(this, mode);
-            return null;
+            extracted.addAll(Collections.nCopies(requests.size(), null));
+            return extracted;
         }
 
+        for (final T request : requests) {
+            extracted.add(this.extractFromStorage(request, mode, src));
+        }
+
+        this.surface(this, mode);
+
+        return extracted;
+    }
+
+    /**
+     * Extracts the request from the storage handlers, lowest priority first. The caller is responsible for the depth
+     * and permission checks.
+     */
+    private T extractFromStorage(T request, final Actionable mode, final BaseActionSource src) {
         final T output = request.copy();
         request = request.copy();
         output.setStackSize(0);
         final long req = request.getStackSize();
 
-        final List<IMEInventoryHandler<T>> priorityInventory = this.priorityInventory;
+        if (this.extractionIndex == null) {
+            this.extractionIndex = new ExtractionRoutingIndex<>(this.priorityInventory);
+        }
+
+        // cells that do not hold the request would return nothing, so the order of the others stays the same
+        final List<IMEInventoryHandler<T>> priorityInventory = this.extractionIndex.getCandidates(request);
         final int size = priorityInventory.size();
         for (int i = size - 1; i >= 0 && output.getStackSize() < req; i--) {
             final IMEInventoryHandler<T> inv = priorityInventory.get(i);
@@ -292,8 +387,6 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
             output.add(inv.extractItems(request, mode, src));
         }
 
-        this.surface(this, mode);
-
         if (output.getStackSize() <= 0) {
             return null;
         }
@@ -309,7 +402,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
         }
 
         final boolean isIgnoreCrafting = out instanceof ItemListIgnoreCrafting;
-        final boolean isSource = this.getDepth(Actionable.SIMULATE).size() == 1;
+        final boolean isSource = this.getDepth(Actionable.SIMULATE).getDepth() == 1;
 
         final NetworkItemList<T> networkItemList = new NetworkItemList<>(
                 this,
@@ -360,7 +453,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
 
         final PrioritizedNetworkItemList<T> networkItemList = new PrioritizedNetworkItemList<>(this);
         this.prioritizedIterationItems = networkItemList;
-        final boolean isSource = this.getDepth(Actionable.SIMULATE).size() == 1;
+        final boolean isSource = this.getDepth(Actionable.SIMULATE).getDepth() == 1;
 
         IItemList<T> currentPriorityItemList = null;
 
@@ -456,7 +549,7 @@ public class NetworkInventoryHandler<T extends IAEStack<T>> implements IMENetwor
             return true;
         }
         this.myPass = iteration;
-        this.getDepth(type).push(this);
+        this.getDepth(type).enter(networkInventoryHandler);
         return false;
     }
 
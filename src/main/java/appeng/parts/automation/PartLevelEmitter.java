@@ -307,17 +307,12 @@ public class PartLevelEmitter extends PartUpgradeable implements ILevelEmitter {
                 final Reference2BooleanMap<IAEStackType<?>> filters = this.typeFilters.getFilters();
                 final var storage = getProxy().getStorage();
 
-                outer: for (var entry : filters.reference2BooleanEntrySet()) {
+                for (var entry : filters.reference2BooleanEntrySet()) {
                     if (entry.getBooleanValue()) {
-                        IMEMonitor<?> validMonitor = storage.getMEMonitor(entry.getKey());
-                        if (validMonitor == null) continue;
-
-                        for (IAEStack<?> stack : validMonitor.getStorageList()) {
-                            this.lastReportedValue += stack.getStackSize();
-                            if (this.lastReportedValue < 0) {
-                                this.lastReportedValue = Long.MAX_VALUE;
-                                break outer;
-                            }
+                        this.lastReportedValue += storage.getStoredCount(entry.getKey());
+                        if (this.lastReportedValue < 0) {
+                            this.lastReportedValue = Long.MAX_VALUE;
+                            break;
                         }
                     }
                 }
@@ -351,6 +346,12 @@ public class PartLevelEmitter extends PartUpgradeable implements ILevelEmitter {
         this.configureWatchers();
     }
 
+    @Override
+    public boolean needsImmediateStackChanges() {
+        // the redstone output has to change in the same tick as the network
+        return true;
+    }
+
     @Override
     public void onStackChange(final IItemList o, final IAEStack fullStack, final IAEStack diffStack,
             final BaseActionSource src, final StorageChannel chan) {
@@ -218,7 +218,7 @@ public class PartInterface extends PartBasicState
 
     @Override
     public void onNeighborChanged() {
-        this.duality.updateRedstoneState();
+        this.duality.onNeighborChanged();
     }
 
     @Override
@@ -77,6 +77,7 @@ import appeng.core.sync.GuiBridge;
 import appeng.helpers.IInterfaceHost;
 import appeng.helpers.Reflected;
 import appeng.integration.IntegrationType;
+import appeng.me.Grid;
 import appeng.me.GridAccessException;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.me.storage.MEMonitorPassThrough;
@@ -312,6 +313,15 @@ public class PartStorageBus extends PartUpgradeable implements IStorageBus {
             return;
         }
 
+        try {
+            // the bus may now see a different subnet
+            if (this.getProxy().getGrid() instanceof Grid grid) {
+                grid.invalidateTopology();
+            }
+        } catch (final GridAccessException e) {
+            // not on a grid, no subnets to forget
+        }
+
         if (fullReset) {
             this.resetCacheLogic = 2;
         } else {
@@ -92,6 +92,7 @@ public class PartP2PInterface extends PartP2PTunnelStatic<PartP2PInterface>
                 PartP2PInterface p2p = getInput();
                 if (p2p != null) {
                     this.craftingList = p2p.duality.craftingList;
+                    this.invalidateCraftingSet();
                     try {
                         this.gridProxy.getGrid()
                                 .postEvent(new MENetworkCraftingPatternChange(this, this.gridProxy.getNode()));
@@ -282,7 +283,7 @@ public class PartP2PInterface extends PartP2PTunnelStatic<PartP2PInterface>
 
     @Override
     public void onNeighborChanged() {
-        this.duality.updateRedstoneState();
+        this.duality.onNeighborChanged();
     }
 
     @Override
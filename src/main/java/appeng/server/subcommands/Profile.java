@@ -1,5 +1,9 @@
 package appeng.server.subcommands;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
 import net.minecraft.command.ICommandSender;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.tileentity.TileEntity;
@@ -9,11 +13,18 @@ import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.util.ForgeDirection;
 
 import appeng.api.networking.IGridHost;
+import appeng.api.networking.IGridNode;
+import appeng.api.networking.ticking.ITickManager;
+import appeng.core.AEConfig;
+import appeng.hooks.TickHandler;
 import appeng.me.Grid;
+import appeng.me.cache.TickManagerCache;
 import appeng.server.ISubCommand;
 
 public class Profile implements ISubCommand {
 
+    private static final int BUDGET_REPORT_GRIDS = 5;
+
     @Override
     public String getHelp(MinecraftServer srv) {
         return "commands.ae2.Profiler";
@@ -21,6 +32,10 @@ public class Profile implements ISubCommand {
 
     @Override
     public void call(MinecraftServer srv, String[] args, ICommandSender sender) {
+        if (args.length == 2 && "budget".equalsIgnoreCase(args[1])) {
+            this.reportBudget(sender);
+            return;
+        }
         if (args.length < 4) sender.addChatMessage(new ChatComponentTranslation("commands.ae2.Profiler"));
         try {
             int x = Integer.decode(args[1]);
@@ -53,10 +68,53 @@ public class Profile implements ISubCommand {
                 IChatComponent message = new ChatComponentTranslation("commands.ae2.ProfilerStop");
                 message.appendText(String.format(" %d", grid.stopProfiling()));
                 sender.addChatMessage(message);
+                final TickManagerCache tmc = getTickManager(grid);
+                if (tmc != null) {
+                    sender.addChatMessage(
+                            new ChatComponentTranslation(
+                                    "commands.ae2.ProfilerDeferred",
+                                    tmc.getOverrunTicks(),
+                                    tmc.getDevicesDeferred()));
+                }
             }
         } catch (NumberFormatException ex) {
             sender.addChatMessage(new ChatComponentTranslation("commands.ae2.ProfilerFailed"));
             return;
         }
     }
+
+    /**
+     * Reports how often the grid tick budget was exceeded, and the grids that deferred the most devices.
+     */
+    private void reportBudget(ICommandSender sender) {
+        sender.addChatMessage(
+                new ChatComponentTranslation(
+                        "commands.ae2.ProfilerBudget",
+                        AEConfig.instance.gridTickBudget,
+                        TickHandler.INSTANCE.getGridTicksOverBudget()));
+
+        final List<Grid> grids = new ArrayList<>();
+        for (final Grid grid : TickHandler.INSTANCE.getGridList()) {
+            final TickManagerCache tmc = getTickManager(grid);
+            if (tmc != null && tmc.getOverrunTicks() > 0) {
+                grids.add(grid);
+            }
+        }
+        grids.sort(Comparator.comparingLong((Grid g) -> getTickManager(g).getDevicesDeferred()).reversed());
+
+        for (final Grid grid : grids.subList(0, Math.min(BUDGET_REPORT_GRIDS, grids.size()))) {
+            final TickManagerCache tmc = getTickManager(grid);
+            final IGridNode pivot = grid.getPivot();
+            sender.addChatMessage(
+                    new ChatComponentTranslation(
+                            "commands.ae2.ProfilerBudgetGrid",
+                            pivot != null ? String.valueOf(pivot.getGridBlock().getLocation()) : "?",
+                            tmc.getOverrunTicks(),
+                            tmc.getDevicesDeferred()));
+        }
+    }
+
+    private static TickManagerCache getTickManager(Grid grid) {
+        return grid.getCache(ITickManager.class) instanceof TickManagerCache tmc ? tmc : null;
+    }
 }
@@ -90,6 +90,7 @@ import appeng.helpers.IPrimaryGuiIconProvider;
 import appeng.helpers.IPriorityHost;
 import appeng.items.storage.ItemBasicStorageCell;
 import appeng.me.GridAccessException;
+import appeng.me.storage.CellInventory;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.TileEvent;
 import appeng.tile.events.TileEventType;
@@ -347,6 +348,18 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
         return super.extractAEPower(amt - stash, mode) + stash;
     }
 
+    @Override
+    public void onChunkUnload() {
+        CellInventory.flushDirtyCells(this);
+        super.onChunkUnload();
+    }
+
+    @Override
+    public void invalidate() {
+        CellInventory.flushDirtyCells(this);
+        super.invalidate();
+    }
+
     @TileEvent(TileEventType.TICK)
     public void Tick_TileChest() {
         if (this.worldObj.isRemote) {
@@ -432,6 +445,7 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
 
     @TileEvent(TileEventType.WORLD_NBT_WRITE)
     public void writeToNBT_TileChest(final NBTTagCompound data) {
+        CellInventory.flushDirtyCells(this);
         this.config.writeToNBT(data);
         data.setInteger("priority", this.priority);
         data.setByte("paintedColor", (byte) this.paintedColor.ordinal());
@@ -484,6 +498,8 @@ public class TileChest extends AENetworkPowerTile implements IMEChest, IFluidHan
     public void onChangeInventory(final IInventory inv, final int slot, final InvOperation mc, final ItemStack removed,
             final ItemStack added) {
         if (slot == 1) {
+            // the removed cell has to carry its contents
+            CellInventory.flushDirtyCells(this);
             this.cellMap.clear();
             this.isCached = false; // recalculate the storage cell.
 
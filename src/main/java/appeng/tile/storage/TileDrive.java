@@ -65,6 +65,7 @@ import appeng.items.AEBaseCell;
 import appeng.items.materials.ItemMultiMaterial;
 import appeng.items.storage.ItemBasicStorageCell;
 import appeng.me.GridAccessException;
+import appeng.me.storage.CellInventory;
 import appeng.me.storage.MEInventoryHandler;
 import appeng.tile.TileEvent;
 import appeng.tile.events.TileEventType;
@@ -213,6 +214,7 @@ public class TileDrive extends AENetworkInvTile
 
     @TileEvent(TileEventType.WORLD_NBT_WRITE)
     public void writeToNBT_TileDrive(final NBTTagCompound data) {
+        CellInventory.flushDirtyCells(this);
         data.setInteger("priority", this.priority);
         data.setByte("paintedColor", (byte) this.paintedColor.ordinal());
     }
@@ -279,6 +281,9 @@ public class TileDrive extends AENetworkInvTile
     @Override
     public void onChangeInventory(final IInventory inv, final int slot, final InvOperation mc, final ItemStack removed,
             final ItemStack added) {
+        // the removed cell has to carry its contents
+        CellInventory.flushDirtyCells(this);
+
         if (this.isCached) {
             this.isCached = false; // recalculate the storage cell.
             this.updateState();
@@ -348,6 +353,18 @@ public class TileDrive extends AENetworkInvTile
         this.updateState();
     }
 
+    @Override
+    public void onChunkUnload() {
+        CellInventory.flushDirtyCells(this);
+        super.onChunkUnload();
+    }
+
+    @Override
+    public void invalidate() {
+        CellInventory.flushDirtyCells(this);
+        super.invalidate();
+    }
+
     @Override
     @Nonnull
     @SuppressWarnings("rawtypes")
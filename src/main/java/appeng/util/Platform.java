@@ -1940,6 +1940,29 @@ public class Platform {
 
     }
 
+    /**
+     * Writes a long in 1 to 10 bytes, small positive values take the least space.
+     */
+    public static void writeVarLong(final ByteBuf buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.writeByte((int) value);
+    }
+
+    public static long readVarLong(final ByteBuf buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 64);
+        return value;
+    }
+
     public static IAEStack<?> readStackByte(ByteBuf buffer) {
         try {
             return IAEStack.fromPacketGeneric(buffer);
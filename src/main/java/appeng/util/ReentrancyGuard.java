@@ -0,0 +1,71 @@
+package appeng.util;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the objects each thread is currently inside of, so that calls looping back into an object that is already on
+ * the call stack can be detected. Objects are compared by identity. Entering and exiting does not allocate once the
+ * stack of a thread has grown to the depth it needs.
+ */
+public final class ReentrancyGuard {
+
+    private final ThreadLocal<Frames> frames = ThreadLocal.withInitial(Frames::new);
+
+    /**
+     * Enters the object unless this thread is already inside of it.
+     *
+     * @return false if the object was already entered on this thread
+     */
+    public boolean tryEnter(final Object owner) {
+        final Frames f = this.frames.get();
+        for (int i = f.size - 1; i >= 0; i--) {
+            if (f.entries[i] == owner) {
+                return false;
+            }
+        }
+        f.push(owner);
+        return true;
+    }
+
+    /**
+     * Enters the object, even if this thread is already inside of it.
+     */
+    public void enter(final Object owner) {
+        this.frames.get().push(owner);
+    }
+
+    /**
+     * Exits the object entered last on this thread.
+     *
+     * @return false if the exited object is not the given one
+     */
+    public boolean exit(final Object owner) {
+        final Frames f = this.frames.get();
+        if (f.size == 0) {
+            return false;
+        }
+        final Object last = f.entries[--f.size];
+        f.entries[f.size] = null;
+        return last == owner;
+    }
+
+    /**
+     * @return the number of objects this thread is currently inside of
+     */
+    public int getDepth() {
+        return this.frames.get().size;
+    }
+
+    private static final class Frames {
+
+        private Object[] entries = new Object[8];
+        private int size = 0;
+
+        private void push(final Object owner) {
+            if (this.size == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.size * 2);
+            }
+            this.entries[this.size++] = owner;
+        }
+    }
+}
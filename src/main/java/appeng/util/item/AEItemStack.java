@@ -69,6 +69,10 @@ public final class AEItemStack extends AEStack<IAEItemStack> implements IAEItemS
         this.setUsedPercent(is.getUsedPercent());
     }
 
+    private AEItemStack(final AEItemDef def) {
+        this.setDefinition(def);
+    }
+
     private AEItemStack(final ItemStack is) {
         if (is == null) {
             throw new InvalidParameterException("null is not a valid ItemStack for AEItemStack.");
@@ -136,6 +140,13 @@ public final class AEItemStack extends AEStack<IAEItemStack> implements IAEItemS
         return item;
     }
 
+    /**
+     * @return an empty stack sharing the given definition
+     */
+    static AEItemStack fromDefinition(final AEItemDef def) {
+        return new AEItemStack(def);
+    }
+
     @Nullable
     public static AEItemStack create(final ItemStack stack) {
         if (stack == null) {
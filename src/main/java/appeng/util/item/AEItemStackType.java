@@ -69,6 +69,11 @@ public class AEItemStackType implements IAEStackType<IAEItemStack> {
         return AEApi.instance().storage().createPrimitiveItemList();
     }
 
+    @Override
+    public IItemList<IAEItemStack> createCompactList() {
+        return AEApi.instance().storage().createCompactItemList();
+    }
+
     @Override
     public boolean isContainerItemForType(@Nullable ItemStack container) {
         return false;
@@ -0,0 +1,412 @@
+/*
+ * This file is part of Applied Energistics 2. Copyright (c) 2013 - 2022, AlgorithmX2, All rights reserved. Applied
+ * Energistics 2 is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option) any
+ * later version. Applied Energistics 2 is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details. You should have received a copy of the GNU Lesser General Public License along with
+ * Applied Energistics 2. If not, see <http://www.gnu.org/licenses/lgpl>.
+ */
+
+package appeng.util.item;
+
+import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import net.minecraft.item.Item;
+
+import appeng.api.config.FuzzyMode;
+import appeng.api.storage.data.IAEItemStack;
+import appeng.api.storage.data.IAEStackType;
+import appeng.api.storage.data.IItemList;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+/**
+ * An item list that keeps one slot per item definition and stores the amounts and flags of all slots in primitive
+ * arrays, instead of one {@link AEItemStack} per entry.
+ * <p>
+ * The stacks returned by {@link #findPrecise}, {@link #findFuzzy} and the iterator are created on demand and are not
+ * backed by the list: changing them does not change the list, use the add methods instead.
+ */
+public final class CompactItemList implements IItemList<IAEItemStack> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Hash.Strategy<AEItemDef> DEFINITION_STRATEGY = new Hash.Strategy<>() {
+
+        @Override
+        public int hashCode(final AEItemDef def) {
+            return def == null ? 0 : def.getMyHash();
+        }
+
+        @Override
+        public boolean equals(final AEItemDef a, final AEItemDef b) {
+            return a == b || (a != null && a.equals(b));
+        }
+    };
+
+    private final Object2IntOpenCustomHashMap<AEItemDef> slots = new Object2IntOpenCustomHashMap<>(
+            DEFINITION_STRATEGY);
+    private final IntArrayList freeSlots = new IntArrayList();
+    private final BitSet craftable = new BitSet();
+
+    private AEItemDef[] definitions = new AEItemDef[INITIAL_CAPACITY];
+    private long[] stackSizes = new long[INITIAL_CAPACITY];
+    private long[] countRequestable = new long[INITIAL_CAPACITY];
+    private long[] countRequestableCrafts = new long[INITIAL_CAPACITY];
+    private float[] usedPercent = new float[INITIAL_CAPACITY];
+    // slots below this have been handed out, free ones are null in definitions
+    private int usedSlots = 0;
+
+    /**
+     * The slots of each item, built by the first fuzzy query and kept up to date afterwards.
+     */
+    @Nullable
+    private Reference2ObjectOpenHashMap<Item, IntArrayList> itemSlots = null;
+
+    public CompactItemList() {
+        this.slots.defaultReturnValue(-1);
+    }
+
+    @Override
+    public void add(final IAEItemStack option) {
+        if (option == null) {
+            return;
+        }
+
+        final int slot = this.slots.getInt(definitionOf(option));
+
+        if (slot < 0) {
+            this.putItemRecord(option);
+            return;
+        }
+
+        this.stackSizes[slot] += option.getStackSize();
+        this.countRequestable[slot] += option.getCountRequestable();
+        if (option.isCraftable()) {
+            this.craftable.set(slot);
+        }
+        this.countRequestableCrafts[slot] += option.getCountRequestableCrafts();
+        this.usedPercent[slot] += option.getUsedPercent();
+    }
+
+    @Override
+    public IAEItemStack findPrecise(final IAEItemStack itemStack) {
+        if (itemStack == null) {
+            return null;
+        }
+
+        final int slot = this.slots.getInt(definitionOf(itemStack));
+        return slot < 0 ? null : this.createStack(slot);
+    }
+
+    @Override
+    public Collection<IAEItemStack> findFuzzy(final IAEItemStack filter, final FuzzyMode fuzzy) {
+        if (filter == null) {
+            return Collections.emptyList();
+        }
+
+        final AEItemStack ais = (AEItemStack) filter;
+        final Collection<IAEItemStack> output = new ObjectArrayList<>();
+
+        if (ais.isOre()) {
+            final IAEItemStack[] bounds = ais.getDefinition().getIsOre().getFuzzyBounds(fuzzy);
+            for (int i = 0; i < bounds.length; i += 2) {
+                this.findFuzzyDamage((AEItemStack) bounds[i], (AEItemStack) bounds[i + 1], output);
+            }
+        } else {
+            this.findFuzzyDamage(
+                    (AEItemStack) ais.getLow(fuzzy, false),
+                    (AEItemStack) ais.getHigh(fuzzy, false),
+                    output);
+        }
+
+        return output;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !this.iterator().hasNext();
+    }
+
+    @Override
+    public void addStorage(final IAEItemStack option) {
+        if (option == null) {
+            return;
+        }
+
+        final int slot = this.slots.getInt(definitionOf(option));
+
+        if (slot < 0) {
+            this.putItemRecord(option);
+            return;
+        }
+
+        this.stackSizes[slot] += option.getStackSize();
+    }
+
+    @Override
+    public void addCrafting(final IAEItemStack option) {
+        if (option == null) {
+            return;
+        }
+
+        int slot = this.slots.getInt(definitionOf(option));
+
+        if (slot < 0) {
+            slot = this.putItemRecord(option);
+            this.stackSizes[slot] = 0;
+        }
+
+        this.craftable.set(slot);
+    }
+
+    @Override
+    public void addRequestable(final IAEItemStack option) {
+        if (option == null) {
+            return;
+        }
+
+        final int slot = this.slots.getInt(definitionOf(option));
+
+        if (slot < 0) {
+            final int newSlot = this.putItemRecord(option);
+            this.stackSizes[newSlot] = 0;
+            this.craftable.clear(newSlot);
+            return;
+        }
+
+        this.countRequestable[slot] += option.getCountRequestable();
+        this.countRequestableCrafts[slot] += option.getCountRequestableCrafts();
+    }
+
+    @Override
+    public IAEItemStack getFirstItem() {
+        for (final IAEItemStack stackType : this) {
+            return stackType;
+        }
+
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return this.slots.size();
+    }
+
+    @Override
+    public Iterator<IAEItemStack> iterator() {
+        return new Iterator<>() {
+
+            private int next = -1;
+            private int current = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (this.next > this.current) {
+                    return true;
+                }
+
+                for (int slot = this.current + 1; slot < CompactItemList.this.usedSlots; slot++) {
+                    if (CompactItemList.this.definitions[slot] == null) {
+                        continue;
+                    }
+
+                    if (CompactItemList.this.isMeaningful(slot)) {
+                        this.next = slot;
+                        return true;
+                    }
+
+                    // self cleaning, like MeaningfulItemIterator
+                    CompactItemList.this.removeSlot(slot);
+                }
+
+                return false;
+            }
+
+            @Override
+            public IAEItemStack next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                this.current = this.next;
+                return CompactItemList.this.createStack(this.current);
+            }
+
+            @Override
+            public void remove() {
+                if (this.current < 0 || CompactItemList.this.definitions[this.current] == null) {
+                    throw new IllegalStateException();
+                }
+
+                CompactItemList.this.removeSlot(this.current);
+            }
+        };
+    }
+
+    @Override
+    public void resetStatus() {
+        for (int slot = 0; slot < this.usedSlots; slot++) {
+            if (this.definitions[slot] == null) {
+                continue;
+            }
+
+            if (!this.isMeaningful(slot)) {
+                this.removeSlot(slot);
+                continue;
+            }
+
+            this.stackSizes[slot] = 0;
+            this.countRequestable[slot] = 0;
+            this.countRequestableCrafts[slot] = 0;
+            this.usedPercent[slot] = 0;
+        }
+
+        this.craftable.clear();
+    }
+
+    public void clear() {
+        this.slots.clear();
+        this.freeSlots.clear();
+        this.craftable.clear();
+        Arrays.fill(this.definitions, 0, this.usedSlots, null);
+        Arrays.fill(this.stackSizes, 0, this.usedSlots, 0);
+        Arrays.fill(this.countRequestable, 0, this.usedSlots, 0);
+        Arrays.fill(this.countRequestableCrafts, 0, this.usedSlots, 0);
+        Arrays.fill(this.usedPercent, 0, this.usedSlots, 0);
+        this.usedSlots = 0;
+        if (this.itemSlots != null) this.itemSlots.clear();
+    }
+
+    @Override
+    public IAEStackType<IAEItemStack> getStackType() {
+        return ITEM_STACK_TYPE;
+    }
+
+    private static AEItemDef definitionOf(final IAEItemStack stack) {
+        if (stack instanceof AEItemStack) {
+            return ((AEItemStack) stack).getDefinition();
+        }
+
+        return AEItemStack.create(stack.getItemStack()).getDefinition();
+    }
+
+    private boolean isMeaningful(final int slot) {
+        return this.stackSizes[slot] != 0 || this.countRequestable[slot] > 0 || this.craftable.get(slot);
+    }
+
+    private IAEItemStack createStack(final int slot) {
+        final AEItemStack stack = AEItemStack.fromDefinition(this.definitions[slot]);
+        stack.setStackSize(this.stackSizes[slot]);
+        stack.setCraftable(this.craftable.get(slot));
+        stack.setCountRequestable(this.countRequestable[slot]);
+        stack.setCountRequestableCrafts(this.countRequestableCrafts[slot]);
+        stack.setUsedPercent(this.usedPercent[slot]);
+        return stack;
+    }
+
+    private int putItemRecord(final IAEItemStack option) {
+        final int slot;
+        if (this.freeSlots.isEmpty()) {
+            slot = this.usedSlots++;
+            if (slot == this.definitions.length) {
+                this.grow();
+            }
+        } else {
+            slot = this.freeSlots.popInt();
+        }
+
+        final AEItemDef def = definitionOf(option);
+        this.definitions[slot] = def;
+        this.stackSizes[slot] = option.getStackSize();
+        this.countRequestable[slot] = option.getCountRequestable();
+        this.craftable.set(slot, option.isCraftable());
+        this.countRequestableCrafts[slot] = option.getCountRequestableCrafts();
+        this.usedPercent[slot] = option.getUsedPercent();
+        this.slots.put(def, slot);
+
+        if (this.itemSlots != null) {
+            this.indexSlot(slot);
+        }
+
+        return slot;
+    }
+
+    private void removeSlot(final int slot) {
+        final AEItemDef def = this.definitions[slot];
+        this.slots.removeInt(def);
+        this.definitions[slot] = null;
+        this.stackSizes[slot] = 0;
+        this.countRequestable[slot] = 0;
+        this.craftable.clear(slot);
+        this.countRequestableCrafts[slot] = 0;
+        this.usedPercent[slot] = 0;
+        this.freeSlots.add(slot);
+
+        if (this.itemSlots != null) {
+            final IntArrayList bucket = this.itemSlots.get(def.getItem());
+            if (bucket != null) {
+                bucket.rem(slot);
+                if (bucket.isEmpty()) {
+                    this.itemSlots.remove(def.getItem());
+                }
+            }
+        }
+    }
+
+    private void grow() {
+        final int capacity = this.definitions.length * 2;
+        this.definitions = Arrays.copyOf(this.definitions, capacity);
+        this.stackSizes = Arrays.copyOf(this.stackSizes, capacity);
+        this.countRequestable = Arrays.copyOf(this.countRequestable, capacity);
+        this.countRequestableCrafts = Arrays.copyOf(this.countRequestableCrafts, capacity);
+        this.usedPercent = Arrays.copyOf(this.usedPercent, capacity);
+    }
+
+    private void indexSlot(final int slot) {
+        final Item item = this.definitions[slot].getItem();
+        IntArrayList bucket = this.itemSlots.get(item);
+        if (bucket == null) {
+            bucket = new IntArrayList(1);
+            this.itemSlots.put(item, bucket);
+        }
+        bucket.add(slot);
+    }
+
+    private void findFuzzyDamage(final AEItemStack low, final AEItemStack high,
+            final Collection<IAEItemStack> output) {
+        if (this.itemSlots == null) {
+            this.itemSlots = new Reference2ObjectOpenHashMap<>();
+            for (int slot = 0; slot < this.usedSlots; slot++) {
+                if (this.definitions[slot] != null) {
+                    this.indexSlot(slot);
+                }
+            }
+        }
+
+        final IntArrayList bucket = this.itemSlots.get(low.getItem());
+        if (bucket == null) {
+            return;
+        }
+
+        for (int i = 0; i < bucket.size(); i++) {
+            final AEItemStack stack = (AEItemStack) this.createStack(bucket.getInt(i));
+            if (low.compareTo(stack) <= 0 && stack.compareTo(high) <= 0) {
+                output.add(stack);
+            }
+        }
+    }
+}
@@ -12,22 +12,24 @@ package appeng.util.item;
 
 import static appeng.util.item.AEItemStackType.ITEM_STACK_TYPE;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.NavigableSet;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 import javax.annotation.Nullable;
 
-import net.minecraftforge.oredict.OreDictionary;
+import net.minecraft.item.Item;
 
 import appeng.api.config.FuzzyMode;
 import appeng.api.storage.data.IAEItemStack;
 import appeng.api.storage.data.IAEStackType;
 import appeng.api.storage.data.IItemList;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 
 public final class ItemList implements IItemList<IAEItemStack> {
 
@@ -42,6 +44,12 @@ public final class ItemList implements IItemList<IAEItemStack> {
     @Nullable
     private NavigableSet<IAEItemStack> records = null;
     private final ObjectOpenHashSet<IAEItemStack> setRecords = new ObjectOpenHashSet<>();
+    /**
+     * The records of each item, sorted by damage. Built by the first fuzzy query and kept up to date afterwards, so a
+     * fuzzy query only searches the records of the items it can match.
+     */
+    @Nullable
+    private Reference2ObjectOpenHashMap<Item, NavigableSet<IAEItemStack>> itemIndex = null;
 
     @Override
     public void add(final IAEItemStack option) {
@@ -80,28 +88,16 @@ public final class ItemList implements IItemList<IAEItemStack> {
 
         if (ais.isOre()) {
             final OreReference or = ais.getDefinition().getIsOre();
+            final IAEItemStack[] bounds = or.getFuzzyBounds(fuzzy);
 
-            if (or.getAEEquivalents().size() == 1) {
-                final IAEItemStack is = or.getAEEquivalents().get(0);
-
-                return this
-                        .findFuzzyDamage((AEItemStack) is, fuzzy, is.getItemDamage() == OreDictionary.WILDCARD_VALUE);
-            } else {
-                final Collection<IAEItemStack> output = new LinkedList<>();
-
-                for (final IAEItemStack is : or.getAEEquivalents()) {
-                    output.addAll(
-                            this.findFuzzyDamage(
-                                    (AEItemStack) is,
-                                    fuzzy,
-                                    is.getItemDamage() == OreDictionary.WILDCARD_VALUE));
-                }
-
-                return output;
+            if (bounds.length == 2) {
+                return this.findFuzzyDamage(bounds[0], bounds[1]);
             }
+
+            return new OreMatches(bounds);
         }
 
-        return this.findFuzzyDamage(ais, fuzzy, false);
+        return this.findFuzzyDamage(ais.getLow(fuzzy, false), ais.getHigh(fuzzy, false));
     }
 
     @Override
@@ -219,6 +215,7 @@ public final class ItemList implements IItemList<IAEItemStack> {
                         // records should be null here, remove just in case it's initialized during the iteration
                         ItemList.this.records.remove(array[index - 1]);
                     }
+                    ItemList.this.removeIndexedRecord(array[index - 1]);
                 }
             };
         } else {
@@ -242,6 +239,7 @@ public final class ItemList implements IItemList<IAEItemStack> {
                 public void remove() {
                     i.remove();
                     ItemList.this.setRecords.remove(next);
+                    ItemList.this.removeIndexedRecord(next);
                 }
             };
 
@@ -260,21 +258,56 @@ public final class ItemList implements IItemList<IAEItemStack> {
     public void clear() {
         this.setRecords.clear();
         if (this.records != null) this.records.clear();
+        if (this.itemIndex != null) this.itemIndex.clear();
     }
 
     private void putItemRecord(final IAEItemStack itemStack) {
         this.setRecords.add(itemStack);
         if (this.records != null) this.records.add(itemStack);
+        if (this.itemIndex != null) this.indexRecord(itemStack);
     }
 
-    private Collection<IAEItemStack> findFuzzyDamage(final AEItemStack filter, final FuzzyMode fuzzy,
-            final boolean ignoreMeta) {
-        final IAEItemStack low = filter.getLow(fuzzy, ignoreMeta);
-        final IAEItemStack high = filter.getHigh(fuzzy, ignoreMeta);
-        if (this.records == null) {
-            initNavigableSet();
+    private void indexRecord(final IAEItemStack itemStack) {
+        NavigableSet<IAEItemStack> bucket = this.itemIndex.get(itemStack.getItem());
+        if (bucket == null) {
+            bucket = new ConcurrentSkipListSet<>();
+            this.itemIndex.put(itemStack.getItem(), bucket);
         }
-        return this.records.subSet(low, true, high, true).descendingSet();
+        bucket.add(itemStack);
+    }
+
+    private void removeIndexedRecord(final IAEItemStack itemStack) {
+        if (this.itemIndex == null) {
+            return;
+        }
+
+        final NavigableSet<IAEItemStack> bucket = this.itemIndex.get(itemStack.getItem());
+        if (bucket != null) {
+            bucket.remove(itemStack);
+            if (bucket.isEmpty()) {
+                this.itemIndex.remove(itemStack.getItem());
+            }
+        }
+    }
+
+    @Nullable
+    private NavigableSet<IAEItemStack> getItemRecords(final Item item) {
+        if (this.itemIndex == null) {
+            this.itemIndex = new Reference2ObjectOpenHashMap<>();
+            for (final IAEItemStack is : this.setRecords) {
+                this.indexRecord(is);
+            }
+        }
+
+        return this.itemIndex.get(item);
+    }
+
+    private Collection<IAEItemStack> findFuzzyDamage(final IAEItemStack low, final IAEItemStack high) {
+        final NavigableSet<IAEItemStack> bucket = this.getItemRecords(low.getItem());
+        if (bucket == null) {
+            return Collections.emptyList();
+        }
+        return bucket.subSet(low, true, high, true).descendingSet();
     }
 
     private void initNavigableSet() {
@@ -282,6 +315,66 @@ public final class ItemList implements IItemList<IAEItemStack> {
         records.addAll(setRecords);
     }
 
+    /**
+     * The matches of an ore dictionary filter with several equivalents, read from the item index while iterating.
+     */
+    private final class OreMatches extends AbstractCollection<IAEItemStack> {
+
+        private final IAEItemStack[] bounds;
+
+        private OreMatches(final IAEItemStack[] bounds) {
+            this.bounds = bounds;
+        }
+
+        @Override
+        public Iterator<IAEItemStack> iterator() {
+            return new Iterator<>() {
+
+                private int next = 0;
+                private Iterator<IAEItemStack> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!this.current.hasNext()) {
+                        if (this.next >= OreMatches.this.bounds.length) {
+                            return false;
+                        }
+
+                        final IAEItemStack[] bounds = OreMatches.this.bounds;
+                        this.current = ItemList.this.findFuzzyDamage(bounds[this.next], bounds[this.next + 1])
+                                .iterator();
+                        this.next += 2;
+                    }
+
+                    return true;
+                }
+
+                @Override
+                public IAEItemStack next() {
+                    if (!this.hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return this.current.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (final IAEItemStack ignored : this) {
+                size++;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !this.iterator().hasNext();
+        }
+    }
+
     @Override
     public IAEStackType<IAEItemStack> getStackType() {
         return ITEM_STACK_TYPE;
@@ -10,9 +10,10 @@
 
 package appeng.util.item;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -22,7 +23,6 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.Nullable;
 
@@ -101,46 +101,56 @@ public class NetworkItemList<T extends IAEStack> implements IItemList<T> {
         networkItemLists.put(network, itemList);
     }
 
-    private Stream<NetworkItemStack<T>> getNetworkItemStackStream(final Set<IMENetworkInventory<T>> visitedNetworks) {
-        return networkItemLists.entrySet().stream()
-                // equivalent to a worse performing mapMulti
-                .flatMap(entry -> {
-                    if (entry.getValue() instanceof NetworkItemList) {
-                        if (visitedNetworks.contains(entry.getKey())) {
-                            return Stream.empty();
-                        }
-                        final Set<IMENetworkInventory<T>> localVisitedNetworks = new HashSet<>(visitedNetworks);
-                        localVisitedNetworks.add(entry.getKey());
-                        return ((NetworkItemList<T>) entry.getValue())
-                                .getFilteredNetworkItemStackStream(Collections.unmodifiableSet(localVisitedNetworks));
-                    } else {
-                        List<NetworkItemStack<T>> buffer = new ArrayList<>();
-                        StreamSupport.stream(entry.getValue().spliterator(), false)
-                                .forEach(item -> buffer.add(new NetworkItemStack<>(entry.getKey(), item)));
-                        return buffer.stream();
-                    }
-                });
+    public Stream<T> getItems() {
+        return this.collectItems().stream();
     }
 
-    private Stream<NetworkItemStack<T>> filter(Stream<NetworkItemStack<T>> stream) {
-        Predicate<T> predicate = buildFilter();
-        if (predicate == null) return stream;
-        else return stream.filter(e -> predicate.test(e.getItemStack()));
+    /**
+     * @return the distinct stacks of this list and of the lists of the networks it read, each network is skipped when
+     *         it is already being read further up
+     */
+    private List<T> collectItems() {
+        final Set<IMENetworkInventory<T>> visitedNetworks = new HashSet<>();
+        visitedNetworks.add(this.network);
+        final List<T> out = new ArrayList<>();
+        this.collectItems(visitedNetworks, new ArrayDeque<>(), new HashSet<>(), out);
+        return out;
     }
 
-    public Stream<T> getItems() {
-        return getFilteredNetworkItemStackStream().distinct().map(NetworkItemStack::getItemStack);
-    }
+    private void collectItems(final Set<IMENetworkInventory<T>> visitedNetworks, final Deque<Predicate<T>> filters,
+            final Set<NetworkItemStack<T>> seen, final List<T> out) {
+        final Predicate<T> filter = buildFilter();
+        if (filter != null) {
+            filters.push(filter);
+        }
 
-    private Stream<NetworkItemStack<T>> getFilteredNetworkItemStackStream() {
-        Set<IMENetworkInventory<T>> visitedNetworks = new HashSet<>();
-        visitedNetworks.add(this.network);
-        return filter(getNetworkItemStackStream(Collections.unmodifiableSet(visitedNetworks)));
+        for (final Map.Entry<IMENetworkInventory<T>, IItemList<T>> entry : networkItemLists.entrySet()) {
+            if (entry.getValue() instanceof NetworkItemList) {
+                if (visitedNetworks.add(entry.getKey())) {
+                    ((NetworkItemList<T>) entry.getValue()).collectItems(visitedNetworks, filters, seen, out);
+                    visitedNetworks.remove(entry.getKey());
+                }
+            } else {
+                for (final T item : entry.getValue()) {
+                    if (matches(filters, item) && seen.add(new NetworkItemStack<>(entry.getKey(), item))) {
+                        out.add(item);
+                    }
+                }
+            }
+        }
+
+        if (filter != null) {
+            filters.pop();
+        }
     }
 
-    private Stream<NetworkItemStack<T>> getFilteredNetworkItemStackStream(
-            final Set<IMENetworkInventory<T>> visitedNetworks) {
-        return filter(getNetworkItemStackStream(visitedNetworks));
+    private static <T> boolean matches(final Collection<Predicate<T>> filters, final T item) {
+        for (final Predicate<T> filter : filters) {
+            if (!filter.test(item)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public void addFilter(Predicate<T> filter) {
@@ -176,7 +186,9 @@ public class NetworkItemList<T extends IAEStack> implements IItemList<T> {
      * @return returns same list that was passed in, is passed out
      */
     public IItemList<T> buildFinalItemList(IItemList<T> out) {
-        getItems().forEach(out::add);
+        for (final T item : collectItems()) {
+            out.add(item);
+        }
         return out;
     }
 
@@ -197,17 +209,18 @@ public class NetworkItemList<T extends IAEStack> implements IItemList<T> {
 
     @Override
     public T getFirstItem() {
-        return getItems().findFirst().orElse(null);
+        final List<T> items = collectItems();
+        return items.isEmpty() ? null : items.get(0);
     }
 
     @Override
     public int size() {
-        return (int) getItems().count();
+        return collectItems().size();
     }
 
     @Override
     public Iterator<T> iterator() {
-        return getItems().iterator();
+        return collectItems().iterator();
     }
 
     @Override
@@ -234,7 +247,7 @@ public class NetworkItemList<T extends IAEStack> implements IItemList<T> {
 
     @Override
     public boolean isEmpty() {
-        return !getItems().findAny().isPresent();
+        return collectItems().isEmpty();
     }
 
     @Override
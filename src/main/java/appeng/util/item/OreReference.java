@@ -18,34 +18,72 @@ import java.util.List;
 import java.util.Set;
 
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
 
+import appeng.api.config.FuzzyMode;
 import appeng.api.storage.data.IAEItemStack;
 
 public class OreReference {
 
     private final List<String> otherOptions = new LinkedList<>();
     private final Set<Integer> ores = new HashSet<>();
-    private List<IAEItemStack> aeOtherOptions = null;
+    private volatile List<IAEItemStack> aeOtherOptions = null;
+    /**
+     * The search bounds of every fuzzy mode, indexed by its ordinal. Read by crafting calculation threads, so it is
+     * built for all modes at once and only published when complete.
+     */
+    private volatile IAEItemStack[][] fuzzyBounds = null;
 
     public Collection<String> getEquivalents() {
         return this.otherOptions;
     }
 
     List<IAEItemStack> getAEEquivalents() {
-        if (this.aeOtherOptions == null) {
-            this.aeOtherOptions = new ArrayList<>(this.otherOptions.size());
+        List<IAEItemStack> options = this.aeOtherOptions;
+        if (options == null) {
+            options = new ArrayList<>(this.otherOptions.size());
 
             // SUMMON AE STACKS!
             for (final String oreName : this.otherOptions) {
                 for (final ItemStack is : OreHelper.INSTANCE.getCachedOres(oreName)) {
                     if (is.getItem() != null) {
-                        this.aeOtherOptions.add(AEItemStack.create(is));
+                        options.add(AEItemStack.create(is));
                     }
                 }
             }
+
+            this.aeOtherOptions = options;
+        }
+
+        return options;
+    }
+
+    /**
+     * @return the low and high search bounds of every equivalent for the given fuzzy mode, alternating
+     */
+    IAEItemStack[] getFuzzyBounds(final FuzzyMode fuzzy) {
+        IAEItemStack[][] bounds = this.fuzzyBounds;
+
+        if (bounds == null) {
+            final List<IAEItemStack> equivalents = this.getAEEquivalents();
+            final FuzzyMode[] modes = FuzzyMode.values();
+            bounds = new IAEItemStack[modes.length][equivalents.size() * 2];
+
+            for (final FuzzyMode mode : modes) {
+                final IAEItemStack[] modeBounds = bounds[mode.ordinal()];
+                for (int i = 0; i < equivalents.size(); i++) {
+                    final AEItemStack is = (AEItemStack) equivalents.get(i);
+                    final boolean ignoreMeta = is.getItemDamage() == OreDictionary.WILDCARD_VALUE;
+                    modeBounds[i * 2] = is.getLow(mode, ignoreMeta);
+                    modeBounds[i * 2 + 1] = is.getHigh(mode, ignoreMeta);
+                }
+            }
+
+            // racing threads compute the same bounds, either result can be kept
+            this.fuzzyBounds = bounds;
         }
 
-        return this.aeOtherOptions;
+        return bounds[fuzzy.ordinal()];
     }
 
     Set<Integer> getOres() {
@@ -0,0 +1,71 @@
+package appeng.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link ReentrancyGuard}
+ */
+public class ReentrancyGuardTest {
+
+    @Test
+    public void tryEnterRejectsReentry() {
+        final ReentrancyGuard guard = new ReentrancyGuard();
+        final Object a = new Object();
+        final Object b = new Object();
+
+        assertTrue(guard.tryEnter(a));
+        assertTrue(guard.tryEnter(b));
+        assertFalse(guard.tryEnter(a));
+        assertEquals(2, guard.getDepth());
+    }
+
+    @Test
+    public void exitChecksOrder() {
+        final ReentrancyGuard guard = new ReentrancyGuard();
+        final Object a = new Object();
+        final Object b = new Object();
+
+        guard.enter(a);
+        guard.enter(b);
+        assertFalse(guard.exit(a));
+        assertTrue(guard.exit(a));
+        assertFalse(guard.exit(a));
+        assertEquals(0, guard.getDepth());
+    }
+
+    @Test
+    public void enterAllowsReentry() {
+        final ReentrancyGuard guard = new ReentrancyGuard();
+        final Object a = new Object();
+
+        for (int i = 0; i < 20; i++) {
+            guard.enter(a);
+        }
+        assertEquals(20, guard.getDepth());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(guard.exit(a));
+        }
+        assertTrue(guard.tryEnter(a));
+    }
+
+    @Test
+    public void threadsAreIndependent() throws InterruptedException {
+        final ReentrancyGuard guard = new ReentrancyGuard();
+        final Object a = new Object();
+        final AtomicBoolean entered = new AtomicBoolean();
+
+        assertTrue(guard.tryEnter(a));
+        final Thread other = new Thread(() -> entered.set(guard.tryEnter(a)));
+        other.start();
+        other.join();
+
+        assertTrue(entered.get());
+        assertEquals(1, guard.getDepth());
+    }
+}